@@ -2,12 +2,20 @@ package org.Itemslore.itemslore;
 
 import org.Itemslore.itemslore.commands.CommandHandler;
 import org.Itemslore.itemslore.commands.CommandTabCompleter;
-import org.Itemslore.itemslore.listeners.AdvancedItemEventListener;
-import org.Itemslore.itemslore.listeners.ItemEventListener;
+import org.Itemslore.itemslore.listeners.PlaceholderExpansionListener;
+import org.Itemslore.itemslore.listeners.PlayerSessionListener;
+import org.Itemslore.itemslore.listeners.PluginHookListener;
+import org.Itemslore.itemslore.listeners.SourceListenerRegistrar;
 import org.Itemslore.itemslore.managers.ConfigManager;
+import org.Itemslore.itemslore.managers.AsyncLoreRenderer;
+import org.Itemslore.itemslore.managers.CraftPreviewCache;
+import org.Itemslore.itemslore.managers.DurabilityUpdater;
+import org.Itemslore.itemslore.managers.LoreQueue;
 import org.Itemslore.itemslore.managers.LoreManager;
+import org.Itemslore.itemslore.managers.LoreSettings;
 import org.Itemslore.itemslore.managers.PluginManager;
 import org.Itemslore.itemslore.utils.ColorManager;
+import org.Itemslore.itemslore.utils.ItemDataKeys;
 import org.Itemslore.itemslore.utils.VariableProcessor;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -24,10 +32,16 @@ public final class Itemslore extends JavaPlugin {
     private ConfigManager configManager;
     private PluginManager pluginManager;
     private LoreManager loreManager;
+    private DurabilityUpdater durabilityUpdater;
+    private AsyncLoreRenderer asyncLoreRenderer;
+    private LoreQueue loreQueue;
+    private CraftPreviewCache craftPreviewCache;
+    private SourceListenerRegistrar sourceListenerRegistrar;
     
     // 工具类
     private ColorManager colorManager;
     private VariableProcessor variableProcessor;
+    private ItemDataKeys itemDataKeys;
     
     @Override
     public void onEnable() {
@@ -50,6 +64,9 @@ public final class Itemslore extends JavaPlugin {
      * 初始化管理器和工具类
      */
     private void initManagers() {
+        // 初始化颜色管理器（编译配置快照时需要预先着色）
+        colorManager = new ColorManager(this);
+        
         // 初始化配置管理器
         configManager = new ConfigManager(this);
         configManager.initialize();
@@ -59,24 +76,38 @@ public final class Itemslore extends JavaPlugin {
         pluginManager.detectSupportedPlugins();
         
         // 初始化工具类
-        colorManager = new ColorManager(this);
         variableProcessor = new VariableProcessor(this);
+        itemDataKeys = new ItemDataKeys(this);
         
         // 初始化Lore管理器
         loreManager = new LoreManager(this, colorManager, variableProcessor);
+        durabilityUpdater = new DurabilityUpdater(this, loreManager);
+        asyncLoreRenderer = new AsyncLoreRenderer(this, loreManager, variableProcessor);
+        loreQueue = new LoreQueue(this, loreManager, variableProcessor);
+        craftPreviewCache = new CraftPreviewCache();
     }
     
     /**
      * 注册事件监听器
      */
     private void registerListeners() {
-        // 注册物品事件监听器
+        // 按配置注册物品事件监听，重载时重新注册
+        sourceListenerRegistrar = new SourceListenerRegistrar(this, loreManager);
+        sourceListenerRegistrar.apply(getSettings());
+        
+        // 注册插件集成监听器
         getServer().getPluginManager().registerEvents(
-                new ItemEventListener(this, loreManager), this);
+                new PluginHookListener(this), this);
+        
+        // PlaceholderAPI的扩展可能晚于插件启用注册
+        if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
+            getServer().getPluginManager().registerEvents(
+                    new PlaceholderExpansionListener(this), this);
+        }
         
-        // 注册高级物品事件监听器
+        // 注册玩家会话监听器
         getServer().getPluginManager().registerEvents(
-                new AdvancedItemEventListener(this, loreManager), this);
+                new PlayerSessionListener(this), this);
     }
     
     /**
@@ -99,6 +130,13 @@ public final class Itemslore extends JavaPlugin {
     
     @Override
     public void onDisable() {
+        // 关闭时玩家还在线，队列和后台渲染中剩余的物品直接处理完
+        if (loreQueue != null) {
+            loreQueue.shutdown();
+        }
+        if (asyncLoreRenderer != null) {
+            asyncLoreRenderer.shutdown();
+        }
         getLogger().info("ItemsLore插件已关闭！");
     }
     
@@ -125,6 +163,22 @@ public final class Itemslore extends JavaPlugin {
     @Override
     public void reloadConfig() {
         configManager.reloadConfig();
+        
+        // 重新查找其他插件的变量处理方法，缓存时间可能已改变
+        if (variableProcessor != null) {
+            variableProcessor.getRegistry().clearLookupCache();
+            variableProcessor.getPlaceholderCache().clear();
+        }
+        
+        // 预览按旧配置渲染，需要重新生成
+        if (craftPreviewCache != null) {
+            craftPreviewCache.clear();
+        }
+        
+        // 获取途径开关可能已改变
+        if (sourceListenerRegistrar != null) {
+            sourceListenerRegistrar.apply(getSettings());
+        }
     }
     
     /**
@@ -135,6 +189,14 @@ public final class Itemslore extends JavaPlugin {
         configManager.saveConfig();
     }
     
+    /**
+     * 获取当前配置快照
+     * @return 配置快照
+     */
+    public LoreSettings getSettings() {
+        return configManager.getSettings();
+    }
+    
     /**
      * 获取插件管理器
      * @return 插件管理器
@@ -159,6 +221,38 @@ public final class Itemslore extends JavaPlugin {
         return loreManager;
     }
     
+    /**
+     * 获取实时耐久度更新器
+     * @return 实时耐久度更新器
+     */
+    public DurabilityUpdater getDurabilityUpdater() {
+        return durabilityUpdater;
+    }
+    
+    /**
+     * 获取后台Lore渲染器
+     * @return 后台Lore渲染器
+     */
+    public AsyncLoreRenderer getAsyncLoreRenderer() {
+        return asyncLoreRenderer;
+    }
+    
+    /**
+     * 获取Lore处理队列
+     * @return Lore处理队列
+     */
+    public LoreQueue getLoreQueue() {
+        return loreQueue;
+    }
+    
+    /**
+     * 获取合成预览缓存
+     * @return 合成预览缓存
+     */
+    public CraftPreviewCache getCraftPreviewCache() {
+        return craftPreviewCache;
+    }
+    
     /**
      * 获取颜色管理器
      * @return 颜色管理器
@@ -175,6 +269,14 @@ public final class Itemslore extends JavaPlugin {
         return variableProcessor;
     }
     
+    /**
+     * 获取物品持久化数据键
+     * @return 物品持久化数据键
+     */
+    public ItemDataKeys getItemDataKeys() {
+        return itemDataKeys;
+    }
+    
     /**
      * 检查PlaceholderAPI是否启用
      * @return 是否启用PlaceholderAPI
@@ -3,6 +3,7 @@ package org.Itemslore.itemslore.commands;
 import org.Itemslore.itemslore.Itemslore;
 import org.Itemslore.itemslore.managers.ConfigManager;
 import org.Itemslore.itemslore.managers.LoreManager;
+import org.Itemslore.itemslore.managers.LoreQueue;
 import org.Itemslore.itemslore.utils.ColorManager;
 import org.Itemslore.itemslore.utils.ItemTypeChecker;
 import org.bukkit.ChatColor;
@@ -63,6 +64,9 @@ public class CommandHandler implements CommandExecutor {
             case "give":
                 return handleGiveCommand(sender, args);
             
+            case "queue":
+                return handleQueueCommand(sender);
+            
             case "help":
                 showHelp(sender);
                 return true;
@@ -82,7 +86,7 @@ public class CommandHandler implements CommandExecutor {
             return true;
         }
         
-        configManager.reloadConfig();
+        plugin.reloadConfig();
         sender.sendMessage(ChatColor.GREEN + "ItemsLore配置已重新加载！");
         return true;
     }
@@ -111,6 +115,7 @@ public class CommandHandler implements CommandExecutor {
         
         ItemMeta meta = item.getItemMeta();
         meta.setLore(new ArrayList<>());
+        loreManager.clearProcessed(meta);
         item.setItemMeta(meta);
         
         sender.sendMessage(ChatColor.GREEN + "已清除手中物品的所有Lore！");
@@ -139,7 +144,7 @@ public class CommandHandler implements CommandExecutor {
             return true;
         }
         
-        if (!plugin.getConfig().getBoolean("lore.random-lore.enabled", false)) {
+        if (!plugin.getSettings().isRandomLoreEnabled()) {
             sender.sendMessage(ChatColor.RED + "随机Lore功能未启用！请在配置中启用。");
             return true;
         }
@@ -280,14 +285,10 @@ public class CommandHandler implements CommandExecutor {
         // 检查物品类型是否符合模板要求
         List<String> itemTypes = templateSection.getStringList("item-types");
         if (!itemTypes.isEmpty()) {
-            String materialName = item.getType().name().toUpperCase();
             boolean matchType = false;
             
             for (String type : itemTypes) {
-                if (materialName.contains(type) || 
-                    (type.equals("WEAPON") && itemTypeChecker.isWeaponItem(item.getType())) ||
-                    (type.equals("TOOL") && itemTypeChecker.isToolItem(item.getType())) ||
-                    (type.equals("ARMOR") && itemTypeChecker.isArmorItem(item.getType()))) {
+                if (itemTypeChecker.matchesType(item.getType(), type)) {
                     matchType = true;
                     break;
                 }
@@ -300,10 +301,11 @@ public class CommandHandler implements CommandExecutor {
         }
         
         // 强制覆盖模式下，清除现有lore
-        if (plugin.getConfig().getString("existing-lore.mode", "APPEND").equalsIgnoreCase("OVERWRITE")) {
+        if (plugin.getSettings().getExistingLoreMode() == LoreManager.ExistingLoreMode.OVERWRITE) {
             ItemMeta meta = item.getItemMeta();
             if (meta != null) {
                 meta.setLore(new ArrayList<>());
+                loreManager.clearProcessed(meta);
                 item.setItemMeta(meta);
             }
         }
@@ -315,8 +317,7 @@ public class CommandHandler implements CommandExecutor {
             player.sendMessage(ChatColor.GREEN + "已将 '" + templateName + "' 模板应用到手中物品！");
         } else {
             // 如果添加失败，可能是因为物品已有lore且模式为IGNORE
-            String mode = plugin.getConfig().getString("existing-lore.mode", "APPEND");
-            if (mode.equalsIgnoreCase("IGNORE") && item.getItemMeta().hasLore()) {
+            if (plugin.getSettings().getExistingLoreMode() == LoreManager.ExistingLoreMode.IGNORE && item.getItemMeta().hasLore()) {
                 player.sendMessage(ChatColor.YELLOW + "物品已有Lore，当前模式为忽略(IGNORE)，未应用模板。");
             } else {
                 player.sendMessage(ChatColor.YELLOW + "物品可能已经有插件添加的Lore，未应用模板。");
@@ -358,6 +359,7 @@ public class CommandHandler implements CommandExecutor {
         // 更新配置
         plugin.getConfig().set("existing-lore.mode", newMode);
         configManager.saveConfig();
+        configManager.rebuildSettings();
         
         sender.sendMessage(ChatColor.GREEN + "已将Lore处理模式设置为: " + newMode);
         
@@ -428,8 +430,7 @@ public class CommandHandler implements CommandExecutor {
             sender.sendMessage(ChatColor.GREEN + "已成功为玩家 " + playerName + " 的手持物品添加Lore！");
             targetPlayer.sendMessage(ChatColor.GREEN + "你的手持物品已被赋予了神秘的属性！");
         } else {
-            String mode = plugin.getConfig().getString("existing-lore.mode", "APPEND");
-            if (mode.equalsIgnoreCase("IGNORE") && item.getItemMeta().hasLore()) {
+            if (plugin.getSettings().getExistingLoreMode() == LoreManager.ExistingLoreMode.IGNORE && item.getItemMeta().hasLore()) {
                 sender.sendMessage(ChatColor.YELLOW + "物品已有Lore，当前模式为忽略(IGNORE)，未应用Lore。");
             } else {
                 sender.sendMessage(ChatColor.YELLOW + "物品可能已经有插件添加的Lore，未应用Lore。");
@@ -439,6 +440,28 @@ public class CommandHandler implements CommandExecutor {
         return true;
     }
     
+    /**
+     * 处理队列状态命令
+     */
+    private boolean handleQueueCommand(CommandSender sender) {
+        if (!sender.hasPermission("itemslore.queue")) {
+            sender.sendMessage(ChatColor.RED + "你没有权限执行此命令！");
+            return true;
+        }
+        
+        LoreQueue queue = plugin.getLoreQueue();
+        sender.sendMessage(ChatColor.GOLD + "=== ItemsLore 处理队列 ===");
+        sender.sendMessage(ChatColor.YELLOW + "状态: " + ChatColor.WHITE
+                + (plugin.getSettings().isQueueEnabled() ? "已启用" : "未启用"));
+        sender.sendMessage(ChatColor.YELLOW + "等待处理: " + ChatColor.WHITE + queue.getDepth()
+                + " (" + queue.getPlayerCount() + " 名玩家)");
+        sender.sendMessage(ChatColor.YELLOW + "已处理: " + ChatColor.WHITE + queue.getProcessed()
+                + ChatColor.YELLOW + "  简化处理: " + ChatColor.WHITE + queue.getReduced());
+        sender.sendMessage(ChatColor.YELLOW + "堆叠合并: " + ChatColor.WHITE + queue.getCoalesced()
+                + ChatColor.YELLOW + "  丢弃: " + ChatColor.WHITE + queue.getDropped());
+        return true;
+    }
+    
     /**
      * 显示帮助信息
      * @param sender 命令发送者
@@ -454,6 +477,7 @@ public class CommandHandler implements CommandExecutor {
         sender.sendMessage(ChatColor.YELLOW + "/itemslore mode " + ChatColor.WHITE + "- 查看当前Lore处理模式");
         sender.sendMessage(ChatColor.YELLOW + "/itemslore mode <APPEND|OVERWRITE|IGNORE> " + ChatColor.WHITE + "- 设置Lore处理模式");
         sender.sendMessage(ChatColor.YELLOW + "/itemslore give <玩家名> " + ChatColor.WHITE + "- 给指定玩家的手持物品添加随机Lore");
+        sender.sendMessage(ChatColor.YELLOW + "/itemslore queue " + ChatColor.WHITE + "- 查看处理队列状态");
         sender.sendMessage(ChatColor.YELLOW + "/itemslore help " + ChatColor.WHITE + "- 显示此帮助信息");
     }
 } 
\ No newline at end of file
@@ -23,7 +23,7 @@ public class CommandTabCompleter implements TabCompleter {
     private final ColorManager colorManager;
     
     private final List<String> MAIN_COMMANDS = Arrays.asList(
-            "reload", "clear", "random", "help", "template", "mode", "give"
+            "reload", "clear", "random", "help", "template", "mode", "give", "queue"
     );
     
     private final List<String> TEMPLATE_COMMANDS = Arrays.asList(
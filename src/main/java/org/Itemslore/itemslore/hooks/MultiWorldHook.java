@@ -0,0 +1,114 @@
+package org.Itemslore.itemslore.hooks;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.utils.PlaceholderResolver;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * MultiWorld集成，处理%mw_xxx%变量
+ * 插件启用时绑定一次MethodHandle，解析变量时直接调用，不再每次反射查找方法
+ */
+public final class MultiWorldHook implements PlaceholderResolver {
+    public static final String PLUGIN_NAME = "MultiWorld";
+
+    private final Itemslore plugin;
+    private boolean enabled = false;
+    // (String)Object，已绑定到MultiWorldAPI实例
+    private MethodHandle getWorld;
+    // (Object)String
+    private MethodHandle getAlias;
+
+    public MultiWorldHook(Itemslore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 绑定MultiWorld接口
+     * @param multiWorld MultiWorld插件实例
+     */
+    public void bind(Plugin multiWorld) {
+        enabled = true;
+        try {
+            ClassLoader loader = multiWorld.getClass().getClassLoader();
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> apiClass = Class.forName("org.multiworld.api.MultiWorldAPI", false, loader);
+            Method getWorldMethod = apiClass.getMethod("getWorld", String.class);
+
+            Object api = lookup.findStatic(apiClass, "getInstance", MethodType.methodType(apiClass)).invoke();
+            getWorld = lookup.unreflect(getWorldMethod)
+                    .bindTo(api)
+                    .asType(MethodType.methodType(Object.class, String.class));
+            getAlias = lookup.findVirtual(getWorldMethod.getReturnType(), "getAlias", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+        } catch (Throwable e) {
+            // 该版本不支持世界别名，使用世界名称
+            getWorld = null;
+            getAlias = null;
+            if (plugin.getSettings().isDebug()) {
+                plugin.getLogger().info("当前MultiWorld版本不支持世界别名接口，世界别名将使用世界名称: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 解除绑定，插件禁用时调用
+     */
+    public void unbind() {
+        enabled = false;
+        getWorld = null;
+        getAlias = null;
+    }
+
+    @Override
+    public String resolve(String params, Player player, ItemStack item) {
+        if (!enabled || player == null) {
+            return null;
+        }
+
+        World world = player.getWorld();
+        switch (params) {
+            case "world":
+            case "worldname":
+                return world.getName();
+
+            case "world_alias":
+            case "worldalias":
+                return getWorldAlias(world);
+
+            case "world_env":
+            case "worldenv":
+                return world.getEnvironment().toString();
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 获取世界别名，没有别名或调用失败时返回世界名称
+     */
+    private String getWorldAlias(World world) {
+        if (getWorld == null || getAlias == null) {
+            return world.getName();
+        }
+
+        try {
+            Object mwWorld = (Object) getWorld.invokeExact(world.getName());
+            if (mwWorld != null) {
+                String alias = (String) getAlias.invokeExact(mwWorld);
+                return alias != null && !alias.isEmpty() ? alias : world.getName();
+            }
+        } catch (Throwable e) {
+            plugin.getLogger().warning("获取MultiWorld世界别名时出错: " + e.getMessage());
+        }
+        return world.getName();
+    }
+}
@@ -0,0 +1,112 @@
+package org.Itemslore.itemslore.hooks;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.utils.PlaceholderResolver;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Multiverse-Core集成，处理%mv_xxx%变量
+ * 插件启用时绑定一次MethodHandle，解析变量时直接调用，不再每次反射查找方法
+ */
+public final class MultiverseHook implements PlaceholderResolver {
+    public static final String PLUGIN_NAME = "Multiverse-Core";
+
+    private final Itemslore plugin;
+    private boolean enabled = false;
+    // (String)Object，已绑定到世界管理器
+    private MethodHandle getMVWorld;
+    // (Object)String
+    private MethodHandle getAlias;
+
+    public MultiverseHook(Itemslore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 绑定Multiverse-Core接口
+     * @param multiverse Multiverse-Core插件实例
+     */
+    public void bind(Plugin multiverse) {
+        enabled = true;
+        try {
+            ClassLoader loader = multiverse.getClass().getClassLoader();
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> coreClass = Class.forName("com.onarandombox.MultiverseCore.MultiverseCore", false, loader);
+            Class<?> managerClass = Class.forName("com.onarandombox.MultiverseCore.api.MVWorldManager", false, loader);
+            Class<?> worldClass = Class.forName("com.onarandombox.MultiverseCore.api.MultiverseWorld", false, loader);
+
+            Object worldManager = lookup.findVirtual(coreClass, "getMVWorldManager", MethodType.methodType(managerClass))
+                    .invoke(multiverse);
+            getMVWorld = lookup.findVirtual(managerClass, "getMVWorld", MethodType.methodType(worldClass, String.class))
+                    .bindTo(worldManager)
+                    .asType(MethodType.methodType(Object.class, String.class));
+            getAlias = lookup.findVirtual(worldClass, "getAlias", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+        } catch (Throwable e) {
+            getMVWorld = null;
+            getAlias = null;
+            plugin.getLogger().warning("无法绑定Multiverse世界别名接口，世界别名将使用世界名称: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 解除绑定，插件禁用时调用
+     */
+    public void unbind() {
+        enabled = false;
+        getMVWorld = null;
+        getAlias = null;
+    }
+
+    @Override
+    public String resolve(String params, Player player, ItemStack item) {
+        if (!enabled || player == null) {
+            return null;
+        }
+
+        World world = player.getWorld();
+        switch (params) {
+            case "world":
+            case "worldname":
+                return world.getName();
+
+            case "world_alias":
+            case "worldalias":
+                return getWorldAlias(world);
+
+            case "world_env":
+            case "worldenv":
+                return world.getEnvironment().toString();
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 获取世界别名，没有别名时返回世界名称
+     */
+    private String getWorldAlias(World world) {
+        if (getMVWorld == null || getAlias == null) {
+            return world.getName();
+        }
+
+        try {
+            Object mvWorld = (Object) getMVWorld.invokeExact(world.getName());
+            if (mvWorld != null) {
+                String alias = (String) getAlias.invokeExact(mvWorld);
+                return alias != null && !alias.isEmpty() ? alias : world.getName();
+            }
+        } catch (Throwable e) {
+            plugin.getLogger().warning("获取Multiverse世界别名时出错: " + e.getMessage());
+        }
+        return world.getName();
+    }
+}
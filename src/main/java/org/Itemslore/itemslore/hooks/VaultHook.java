@@ -0,0 +1,111 @@
+package org.Itemslore.itemslore.hooks;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.utils.PlaceholderResolver;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredServiceProvider;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Vault集成，处理%vault_xxx%变量
+ * 经济服务的getBalance在Vault启用和经济服务注册/注销时重新绑定，解析变量时直接调用
+ */
+public final class VaultHook implements PlaceholderResolver {
+    public static final String PLUGIN_NAME = "Vault";
+    public static final String ECONOMY_CLASS = "net.milkbowl.vault.economy.Economy";
+
+    private final Itemslore plugin;
+    private boolean enabled = false;
+    private Class<?> economyClass;
+    // (OfflinePlayer)double，已绑定到当前经济服务
+    private MethodHandle getBalance;
+
+    public VaultHook(Itemslore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 绑定Vault接口
+     * @param vault Vault插件实例
+     */
+    public void bind(Plugin vault) {
+        enabled = true;
+        try {
+            economyClass = Class.forName(ECONOMY_CLASS, false, vault.getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            economyClass = null;
+            plugin.getLogger().warning("无法加载Vault经济接口: " + e.getMessage());
+        }
+        refreshEconomy();
+    }
+
+    /**
+     * 重新获取经济服务，经济服务注册或注销时调用
+     */
+    public void refreshEconomy() {
+        getBalance = null;
+        if (!enabled || economyClass == null) {
+            return;
+        }
+
+        RegisteredServiceProvider<?> registration = Bukkit.getServicesManager().getRegistration(economyClass);
+        if (registration == null) {
+            return; // 还没有插件提供经济服务
+        }
+
+        try {
+            getBalance = MethodHandles.publicLookup()
+                    .findVirtual(economyClass, "getBalance", MethodType.methodType(double.class, OfflinePlayer.class))
+                    .bindTo(registration.getProvider());
+        } catch (ReflectiveOperationException e) {
+            plugin.getLogger().warning("无法绑定Vault余额接口: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 解除绑定，插件禁用时调用
+     */
+    public void unbind() {
+        enabled = false;
+        economyClass = null;
+        getBalance = null;
+    }
+
+    @Override
+    public String resolve(String params, Player player, ItemStack item) {
+        if (!enabled || player == null) {
+            return null;
+        }
+
+        switch (params) {
+            case "balance":
+                return getBalance(player);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 获取玩家余额，没有经济服务时返回0.00
+     */
+    private String getBalance(Player player) {
+        if (getBalance == null) {
+            return "0.00";
+        }
+
+        try {
+            double balance = (double) getBalance.invokeExact((OfflinePlayer) player);
+            return String.format("%.2f", balance);
+        } catch (Throwable e) {
+            plugin.getLogger().warning("获取Vault余额时出错: " + e.getMessage());
+            return "0.00";
+        }
+    }
+}
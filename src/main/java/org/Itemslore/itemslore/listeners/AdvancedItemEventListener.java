@@ -1,23 +1,26 @@
 package org.Itemslore.itemslore.listeners;
 
 import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.managers.ItemSource;
 import org.Itemslore.itemslore.managers.LoreManager;
+import org.Itemslore.itemslore.managers.LoreSettings;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
 import org.bukkit.event.enchantment.EnchantItemEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.event.player.*;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.SmithingInventory;
 
 /**
  * 高级物品事件监听器
- * 处理更多物品相关事件
+ * 处理更多物品相关事件，由SourceListenerRegistrar按配置注册
  */
-public class AdvancedItemEventListener implements Listener {
+public class AdvancedItemEventListener {
     
     private final Itemslore plugin;
     private final LoreManager loreManager;
@@ -30,7 +33,6 @@ public class AdvancedItemEventListener implements Listener {
     /**
      * 监听物品附魔事件
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onEnchantItem(EnchantItemEvent event) {
         Player player = event.getEnchanter();
         ItemStack item = event.getItem();
@@ -43,42 +45,76 @@ public class AdvancedItemEventListener implements Listener {
     /**
      * 监听物品修复事件（经验修补）
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onItemMend(PlayerItemMendEvent event) {
         Player player = event.getPlayer();
         ItemStack item = event.getItem();
         
-        if (loreManager.shouldProcessItem(item)) {
+        // 关闭经验修补途径但开启实时耐久度时同样会注册，只更新耐久度行
+        if (plugin.getSettings().isSourceEnabled(ItemSource.MEND) && loreManager.shouldProcessItem(item)) {
             loreManager.addLoreToItem(item, player, "经验修补");
         }
+        
+        // 修补后更新耐久度行
+        plugin.getDurabilityUpdater().markDirty(player, event.getSlot());
+    }
+    
+    /**
+     * 监听物品受损事件，更新耐久度行
+     */
+    public void onItemDamage(PlayerItemDamageEvent event) {
+        plugin.getDurabilityUpdater().markDirty(event.getPlayer(), event.getItem());
+    }
+    
+    /**
+     * 监听打开容器事件，更新可以看到的物品的相对时间行
+     */
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        long now = System.currentTimeMillis();
+        refreshRelativeTime(event.getInventory(), now);
+        
+        // 打开容器时玩家自己的物品栏同样可见
+        refreshRelativeTime(event.getPlayer().getInventory(), now);
+    }
+    
+    /**
+     * 监听切换手持物品事件，更新新手持物品的相对时间行
+     */
+    public void onItemHeld(PlayerItemHeldEvent event) {
+        PlayerInventory inventory = event.getPlayer().getInventory();
+        ItemStack item = inventory.getItem(event.getNewSlot());
+        if (loreManager.refreshRelativeTime(item, System.currentTimeMillis())) {
+            inventory.setItem(event.getNewSlot(), item);
+        }
+    }
+    
+    /**
+     * 更新容器中所有物品的相对时间行，只写回有变化的槽位
+     */
+    private void refreshRelativeTime(Inventory inventory, long now) {
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (loreManager.refreshRelativeTime(item, now)) {
+                inventory.setItem(slot, item);
+            }
+        }
     }
     
     /**
      * 监听物品破损事件
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onItemBreak(PlayerItemBreakEvent event) {
         // 这里只能记录而不能更改，因为物品已经破损
-        if (plugin.getConfig().getBoolean("debug", false)) {
+        if (plugin.getSettings().isDebug()) {
             Player player = event.getPlayer();
             ItemStack item = event.getBrokenItem();
             plugin.getLogger().info("玩家 " + player.getName() + " 的物品 " + item.getType().name() + " 已损坏");
         }
     }
     
-    /**
-     * 监听物品丢弃事件
-     */
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onItemDrop(PlayerDropItemEvent event) {
-        // 这个事件通常不需要处理，因为丢弃的物品已经在物品栏中处理过
-        // 如果有特殊需求，可以在这里添加处理逻辑
-    }
-    
     /**
      * 监听物品交换事件（主副手）
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onSwapHandItems(PlayerSwapHandItemsEvent event) {
         Player player = event.getPlayer();
         
@@ -96,32 +132,36 @@ public class AdvancedItemEventListener implements Listener {
     }
     
     /**
-     * 监听物品交互事件
-     */
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onPlayerInteract(PlayerInteractEvent event) {
-        // 这个事件通常发生频率很高，所以需要谨慎处理
-        // 如果有特殊需求，可以在这里添加处理逻辑
-    }
-    
-    /**
-     * 监听铁砧合成事件
+     * 监听铁砧和锻造台的结果槽位点击
+     * 两个途径共用一个InventoryClickEvent处理，只在启用的途径下处理
      */
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onAnvilUse(InventoryClickEvent event) {
+    public void onResultClick(InventoryClickEvent event) {
         if (!(event.getWhoClicked() instanceof Player)) return;
-        if (event.getClickedInventory() == null) return;
-        if (event.getClickedInventory().getType() != InventoryType.ANVIL) return;
         
         // 只有点击结果槽位才处理
         if (event.getRawSlot() != 2) return;
         
+        Inventory clicked = event.getClickedInventory();
+        if (clicked == null) return;
+        
+        String source;
+        LoreSettings settings = plugin.getSettings();
+        if (clicked.getType() == InventoryType.ANVIL) {
+            if (!settings.isSourceEnabled(ItemSource.ANVIL)) return;
+            source = "铁砧修复";
+        } else if (clicked instanceof SmithingInventory) {
+            if (!settings.isSourceEnabled(ItemSource.SMITHING)) return;
+            source = "锻造";
+        } else {
+            return;
+        }
+        
         ItemStack result = event.getCurrentItem();
         if (result == null || result.getType() == Material.AIR) return;
         
         Player player = (Player) event.getWhoClicked();
         if (loreManager.shouldProcessItem(result)) {
-            loreManager.addLoreToItem(result, player, "铁砧修复");
+            loreManager.addLoreToItem(result, player, source);
         }
     }
-} 
\ No newline at end of file
+}
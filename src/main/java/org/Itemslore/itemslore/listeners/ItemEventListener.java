@@ -1,42 +1,49 @@
 package org.Itemslore.itemslore.listeners;
 
 import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.managers.CraftPreviewCache;
 import org.Itemslore.itemslore.managers.LoreManager;
+import org.Itemslore.itemslore.managers.LoreSettings;
+import org.Itemslore.itemslore.utils.ItemDataKeys;
 import org.Itemslore.itemslore.utils.MobSourceParser;
-import org.bukkit.entity.Entity;
+import org.bukkit.Keyed;
+import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockDropItemEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
 import org.bukkit.event.inventory.CraftItemEvent;
 import org.bukkit.event.inventory.FurnaceExtractEvent;
-import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerFishEvent;
 import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.inventory.CraftingInventory;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.SmithingInventory;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.List;
 
 /**
- * 物品事件监听器，处理物品相关事件
+ * 物品事件监听器，处理物品相关事件，由SourceListenerRegistrar按配置注册
  */
-public class ItemEventListener implements Listener {
+public class ItemEventListener {
     
     private final Itemslore plugin;
     private final LoreManager loreManager;
     private final MobSourceParser mobSourceParser;
     
-    // 用于存储怪物掉落物品的来源信息
-    private final Map<UUID, String> itemSourceMap = new HashMap<>();
+    // 批量合成时最多预先渲染的次数
+    private static final int MAX_BULK_CRAFTS = 64;
     
     public ItemEventListener(Itemslore plugin, LoreManager loreManager) {
         this.plugin = plugin;
@@ -47,7 +54,6 @@ public class ItemEventListener implements Listener {
     /**
      * 监听怪物死亡事件，处理掉落物
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onEntityDeath(EntityDeathEvent event) {
         LivingEntity entity = event.getEntity();
         Player killer = entity.getKiller();
@@ -55,44 +61,53 @@ public class ItemEventListener implements Listener {
         // 如果不是玩家杀死的，或者掉落物为空，则跳过
         if (killer == null || event.getDrops().isEmpty()) return;
         
-        // 获取怪物名称作为来源
-        String source = mobSourceParser.parseEntitySource(entity);
+        // 同一次击杀的掉落物共用一个来源，需要时才解析
+        String source = null;
+        NamespacedKey sourceKey = plugin.getItemDataKeys().getDropSource();
         
-        // 为每个掉落物添加标记，以便在拾取时添加Lore
+        // 把来源写入每个掉落物，生成掉落物实体时再移到实体上
         for (ItemStack drop : event.getDrops()) {
-            if (loreManager.shouldProcessItem(drop)) {
-                // 在掉落前，物品还未生成对应的Item实体，所以先不添加Lore
-                // 而是在玩家拾取时添加，这里我们记录物品的来源信息
-                
-                // 当物品实体被拾取时，我们会使用这个标记来确定来源
-                // 这里我们模拟这个过程，实际上需要更复杂的逻辑来追踪物品
-                
-                // 添加临时NBT标签或使用其他方式标记物品
-                // 由于Bukkit API限制，我们使用简单的UUID映射来实现
-                
-                // 在实体死亡事件中，物品还没有变成世界中的Item实体
-                // 所以我们在玩家拾取前，记录一下这批物品的来源
-                // 这里的实现比较简单，实际上可能需要更复杂的逻辑
-                
-                // 生成一个UUID作为物品的标记
-                UUID itemId = UUID.randomUUID();
-                
-                // 将UUID写入物品的临时数据（例如通过NBT）
-                // 由于Bukkit API的限制，这里我们简化处理
-                // 在实际应用中，可能需要使用NBT标签API或其他方式
-                
-                // 将来源信息与物品关联
-                if (plugin.getConfig().getBoolean("debug", false)) {
-                    plugin.getLogger().info("记录物品来源: " + source + " 对应掉落物: " + drop.getType().name());
-                }
+            if (!loreManager.shouldProcessItem(drop) || loreManager.isProcessed(drop)) continue;
+            
+            ItemMeta meta = drop.getItemMeta();
+            if (meta == null) continue;
+            
+            if (source == null) {
+                source = mobSourceParser.parseEntitySource(entity);
+            }
+            meta.getPersistentDataContainer().set(sourceKey, PersistentDataType.STRING, source);
+            drop.setItemMeta(meta);
+            
+            if (plugin.getSettings().isDebug()) {
+                plugin.getLogger().info("记录物品来源: " + source + " 对应掉落物: " + drop.getType().name());
             }
         }
     }
     
+    /**
+     * 监听掉落物生成事件，把生物掉落物上的来源移到掉落物实体上
+     * 物品本身不保留来源，不影响和相同物品堆叠
+     */
+    public void onItemSpawn(ItemSpawnEvent event) {
+        Item itemEntity = event.getEntity();
+        ItemStack stack = itemEntity.getItemStack();
+        NamespacedKey sourceKey = plugin.getItemDataKeys().getDropSource();
+        
+        // 只读取物品数据视图，没有来源的物品不复制ItemMeta
+        String source = stack.getPersistentDataContainer().get(sourceKey, PersistentDataType.STRING);
+        if (source == null) return;
+        
+        ItemMeta meta = stack.getItemMeta();
+        if (meta == null) return;
+        meta.getPersistentDataContainer().remove(sourceKey);
+        stack.setItemMeta(meta);
+        itemEntity.setItemStack(stack);
+        itemEntity.getPersistentDataContainer().set(sourceKey, PersistentDataType.STRING, source);
+    }
+    
     /**
      * 监听物品捡起事件
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onEntityPickupItem(EntityPickupItemEvent event) {
         if (!(event.getEntity() instanceof Player)) return;
         
@@ -100,62 +115,159 @@ public class ItemEventListener implements Listener {
         ItemStack item = event.getItem().getItemStack();
         
         if (loreManager.shouldProcessItem(item)) {
-            // 获取物品实体
             Item itemEntity = event.getItem();
-            Entity dropper = itemEntity.getThrower() != null ? 
-                    plugin.getServer().getEntity(itemEntity.getThrower()) : null;
             
-            // 确定来源
-            String source;
-            if (dropper instanceof LivingEntity && !(dropper instanceof Player)) {
-                // 如果是生物掉落的，使用生物名称
-                source = mobSourceParser.parseEntitySource(dropper);
-            } else {
-                // 默认来源
+            // 生物和方块掉落物的来源写在物品实体上，其他物品使用默认来源
+            // 方块掉落物只有破坏者本人拾取时才使用掉落来源
+            ItemDataKeys keys = plugin.getItemDataKeys();
+            PersistentDataContainer container = itemEntity.getPersistentDataContainer();
+            String source = container.get(keys.getDropSource(), PersistentDataType.STRING);
+            String owner = container.get(keys.getDropOwner(), PersistentDataType.STRING);
+            if (source == null || (owner != null && !owner.equals(player.getUniqueId().toString()))) {
                 source = "拾取";
             }
             
-            loreManager.addLoreToItem(item, player, source);
+            if (plugin.getSettings().isQueueEnabled()) {
+                // 加入处理队列，带标记的物品同样需要写回物品实体
+                if (plugin.getLoreQueue().enqueue(item, player, source)) {
+                    itemEntity.setItemStack(item);
+                }
+            } else if (plugin.getSettings().isAsyncRenderEnabled()) {
+                // 后台渲染，带凭据的物品需要写回物品实体，拾取后才能在背包中找回
+                if (plugin.getAsyncLoreRenderer().submit(item, player, source)) {
+                    itemEntity.setItemStack(item);
+                }
+            } else {
+                loreManager.addLoreToItem(item, player, source);
+            }
         }
     }
 
+    /**
+     * 监听玩家丢弃物品事件，清除还没有处理的物品上的标记
+     */
+    public void onPlayerDropItem(PlayerDropItemEvent event) {
+        Item itemEntity = event.getItemDrop();
+        ItemStack item = itemEntity.getItemStack();
+        if (plugin.getLoreQueue().release(item)) {
+            itemEntity.setItemStack(item);
+        }
+    }
+    
+    /**
+     * 监听关闭容器事件，清除放入容器的、还没有处理的物品上的标记
+     */
+    public void onContainerClose(InventoryCloseEvent event) {
+        Inventory inventory = event.getInventory();
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (plugin.getLoreQueue().release(item)) {
+                inventory.setItem(slot, item);
+            }
+        }
+    }
+    
     /**
      * 监听物品合成事件
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onCraftItem(CraftItemEvent event) {
         if (!(event.getWhoClicked() instanceof Player)) return;
         
         Player player = (Player) event.getWhoClicked();
         ItemStack item = event.getCurrentItem();
         
+        // 合成结果通常就是已渲染的预览，带有处理标记，这里不会重新生成
         if (loreManager.shouldProcessItem(item)) {
             loreManager.addLoreToItem(item, player, "合成");
         }
+        
+        // 批量合成时预先渲染后续每次合成的结果，否则下一次合成重新生成预览
+        Recipe recipe = event.getRecipe();
+        int remaining = event.isShiftClick() && item != null
+                ? countCrafts(event.getInventory(), player.getInventory(), item) - 1
+                : 0;
+        if (remaining > 0 && recipe instanceof Keyed && loreManager.shouldProcessItem(recipe.getResult())) {
+            List<ItemStack> results = loreManager.addLoreToCopies(recipe.getResult(), remaining, player, "合成");
+            CraftPreviewCache previews = plugin.getCraftPreviewCache();
+            previews.offer(player.getUniqueId(), ((Keyed) recipe).getKey(), results);
+            
+            // 批量合成在同一tick内完成，没有用到的结果不能留到之后的合成
+            plugin.getServer().getScheduler().runTask(plugin, () -> previews.clearPending(player.getUniqueId()));
+        } else {
+            plugin.getCraftPreviewCache().invalidate(player.getUniqueId());
+        }
+    }
+    
+    /**
+     * 计算批量合成能合成的次数
+     * 和服务器的计算方式一致：合成格中数量最少的材料数量，再受背包中能放下的结果数量限制
+     * @param matrix 合成界面
+     * @param inventory 玩家背包
+     * @param result 单次合成的结果
+     */
+    private int countCrafts(CraftingInventory matrix, PlayerInventory inventory, ItemStack result) {
+        int crafts = MAX_BULK_CRAFTS;
+        boolean hasIngredient = false;
+        for (ItemStack ingredient : matrix.getMatrix()) {
+            if (ingredient == null || ingredient.getType().isAir()) continue;
+            crafts = Math.min(crafts, ingredient.getAmount());
+            hasIngredient = true;
+        }
+        if (!hasIngredient || result.getAmount() <= 0) return 0;
+        
+        // 空格放满一组，相同物品的格子放到满组为止
+        int maxStack = result.getMaxStackSize();
+        int space = 0;
+        for (ItemStack stack : inventory.getStorageContents()) {
+            if (stack == null || stack.getType().isAir()) {
+                space += maxStack;
+            } else if (stack.isSimilar(result)) {
+                space += Math.max(0, maxStack - stack.getAmount());
+            }
+        }
+        return Math.min(crafts, space / result.getAmount());
     }
     
     /**
      * 监听物品准备合成事件
+     * 合成格每次变化都会触发，同一配方的预览只渲染一次
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onPrepareCraftItem(PrepareItemCraftEvent event) {
         if (event.getView().getPlayer() instanceof Player && event.getRecipe() != null) {
             Player player = (Player) event.getView().getPlayer();
-            ItemStack result = event.getRecipe().getResult();
+            Recipe recipe = event.getRecipe();
+            ItemStack result = recipe.getResult();
             
             if (loreManager.shouldProcessItem(result)) {
-                ItemStack clonedResult = result.clone();
-                if (loreManager.addLoreToItem(clonedResult, player, "合成")) {
-                    event.getInventory().setResult(clonedResult);
+                CraftPreviewCache previews = plugin.getCraftPreviewCache();
+                NamespacedKey recipeKey = recipe instanceof Keyed ? ((Keyed) recipe).getKey() : null;
+                
+                ItemStack preview = recipeKey != null
+                        ? previews.get(player.getUniqueId(), recipeKey, result.getType())
+                        : null;
+                if (preview == null) {
+                    preview = result.clone();
+                    if (!loreManager.addLoreToItem(preview, player, "合成")) return;
+                    if (recipeKey != null) {
+                        previews.put(player.getUniqueId(), recipeKey, preview);
+                    }
                 }
+                event.getInventory().setResult(preview);
             }
         }
     }
     
+    /**
+     * 监听关闭界面事件，清除合成预览
+     */
+    public void onInventoryClose(InventoryCloseEvent event) {
+        plugin.getCraftPreviewCache().invalidate(event.getPlayer().getUniqueId());
+    }
+    
     /**
      * 监听熔炉提取物品事件
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onFurnaceExtract(FurnaceExtractEvent event) {
         Player player = event.getPlayer();
         ItemStack item = new ItemStack(event.getItemType(), event.getItemAmount());
@@ -170,7 +282,6 @@ public class ItemEventListener implements Listener {
     /**
      * 监听玩家钓鱼事件
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onPlayerFish(PlayerFishEvent event) {
         if (event.getState() != PlayerFishEvent.State.CAUGHT_FISH) return;
         if (event.getCaught() == null) return;
@@ -190,60 +301,41 @@ public class ItemEventListener implements Listener {
     /**
      * 监听物品消耗事件（例如吃食物）
      */
-    @EventHandler(priority = EventPriority.NORMAL)
     public void onItemConsume(PlayerItemConsumeEvent event) {
         Player player = event.getPlayer();
         ItemStack item = event.getItem();
         
-        // 这里只是示例，通常消耗物品不需要添加Lore
+        // 通常消耗物品不需要添加Lore，只在启用consume途径时注册
         // 但有些插件可能会有特殊需求，例如可重用的饮料瓶等
-        if (plugin.getConfig().getBoolean("add-lore-to-consumed-items", false)) {
-            if (loreManager.shouldProcessItem(item)) {
-                loreManager.addLoreToItem(item, player, "消耗");
-            }
+        if (loreManager.shouldProcessItem(item)) {
+            loreManager.addLoreToItem(item, player, "消耗");
         }
     }
     
     /**
-     * 监听铁砧使用事件
+     * 监听方块掉落物品事件，为需要处理的掉落物写入来源和破坏者
      */
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onInventoryClick(InventoryClickEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) return;
-        if (event.getClickedInventory() == null) return;
+    public void onBlockDropItem(BlockDropItemEvent event) {
+        LoreSettings settings = plugin.getSettings();
+        if (!settings.isProcessDropsFromBrokenBlocks() || event.getItems().isEmpty()) return;
         
-        Player player = (Player) event.getWhoClicked();
+        // 同一个方块的掉落物共用来源和破坏者，需要时才生成
+        String source = null;
+        String owner = null;
+        ItemDataKeys keys = plugin.getItemDataKeys();
         
-        // 检查锻造台操作
-        if (event.getClickedInventory() instanceof SmithingInventory) {
-            // 锻造台事件处理，检查结果槽位
-            if (event.getRawSlot() == 2) { // 结果槽位
-                ItemStack result = event.getCurrentItem();
-                if (result != null && !result.getType().isAir()) {
-                    if (loreManager.shouldProcessItem(result)) {
-                        loreManager.addLoreToItem(result, player, "锻造");
-                    }
-                }
+        // 来源写入掉落物实体，不修改物品本身，不影响和相同物品堆叠
+        for (Item itemEntity : event.getItems()) {
+            // 可处理的材质在重载配置时已计算好
+            if (!settings.isProcessable(itemEntity.getItemStack().getType())) continue;
+            
+            if (source == null) {
+                source = mobSourceParser.parseBlockSource(event.getBlockState().getType());
+                owner = event.getPlayer().getUniqueId().toString();
             }
+            PersistentDataContainer container = itemEntity.getPersistentDataContainer();
+            container.set(keys.getDropSource(), PersistentDataType.STRING, source);
+            container.set(keys.getDropOwner(), PersistentDataType.STRING, owner);
         }
     }
-    
-    /**
-     * 监听方块破坏事件（例如收获庄稼）
-     */
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onBlockBreak(BlockBreakEvent event) {
-        if (event.isCancelled()) return;
-        
-        // 这里监听方块破坏是为了处理那些直接掉落的物品
-        // 但实际上物品掉落后会被EntityPickupItemEvent捕获并处理
-        // 这里只是提供一个示例，如果有特殊需求可以在这里处理
-        Player player = event.getPlayer();
-        
-        // 检查是否是特殊方块，例如特定的农作物或自定义方块
-        if (plugin.getConfig().getBoolean("process-drops-from-broken-blocks", false)) {
-            // 在实际应用中，可能需要调用一个工具方法来检查和处理掉落物
-            // 这需要与其他插件集成或使用自定义逻辑
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package org.Itemslore.itemslore.listeners;
+
+import me.clip.placeholderapi.events.ExpansionRegisterEvent;
+import org.Itemslore.itemslore.Itemslore;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * PlaceholderAPI扩展监听器，只在安装了PlaceholderAPI时注册
+ * 新扩展注册后，之前记录为无法处理的同名命名空间需要重新查找
+ */
+public class PlaceholderExpansionListener implements Listener {
+
+    private final Itemslore plugin;
+
+    public PlaceholderExpansionListener(Itemslore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 监听扩展注册事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onExpansionRegister(ExpansionRegisterEvent event) {
+        plugin.getVariableProcessor().getRegistry().handleExpansionRegister(event.getExpansion().getIdentifier());
+    }
+}
@@ -0,0 +1,40 @@
+package org.Itemslore.itemslore.listeners;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * 玩家会话监听器
+ * 玩家退出或切换世界时清除按玩家缓存的数据，玩家退出时同时移除其等待处理的物品和合成预览
+ */
+public class PlayerSessionListener implements Listener {
+
+    private final Itemslore plugin;
+
+    public PlayerSessionListener(Itemslore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 监听玩家退出事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getVariableProcessor().getPlaceholderCache().invalidate(event.getPlayer().getUniqueId());
+        plugin.getLoreQueue().invalidate(event.getPlayer());
+        plugin.getAsyncLoreRenderer().invalidate(event.getPlayer());
+        plugin.getCraftPreviewCache().invalidate(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * 监听玩家切换世界事件，世界相关的变量需要重新解析
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        plugin.getVariableProcessor().getPlaceholderCache().invalidate(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,59 @@
+package org.Itemslore.itemslore.listeners;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.event.server.ServiceRegisterEvent;
+import org.bukkit.event.server.ServiceUnregisterEvent;
+
+/**
+ * 插件集成监听器
+ * 其他插件启用/禁用或注册服务时，重新绑定对应的变量集成
+ */
+public class PluginHookListener implements Listener {
+
+    private final Itemslore plugin;
+
+    public PluginHookListener(Itemslore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 监听插件启用事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        plugin.getPluginManager().handlePluginEnable(event.getPlugin());
+
+        // 新启用的插件可能提供变量处理方法
+        plugin.getVariableProcessor().getRegistry().clearLookupCache();
+    }
+
+    /**
+     * 监听插件禁用事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        plugin.getPluginManager().handlePluginDisable(event.getPlugin());
+        plugin.getVariableProcessor().getRegistry().clearLookupCache();
+    }
+
+    /**
+     * 监听服务注册事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServiceRegister(ServiceRegisterEvent event) {
+        plugin.getPluginManager().handleServiceChange(event.getProvider());
+    }
+
+    /**
+     * 监听服务注销事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServiceUnregister(ServiceUnregisterEvent event) {
+        plugin.getPluginManager().handleServiceChange(event.getProvider());
+    }
+}
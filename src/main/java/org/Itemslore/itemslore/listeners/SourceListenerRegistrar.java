@@ -0,0 +1,154 @@
+package org.Itemslore.itemslore.listeners;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.managers.ItemSource;
+import org.Itemslore.itemslore.managers.LoreManager;
+import org.Itemslore.itemslore.managers.LoreSettings;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockDropItemEvent;
+import org.bukkit.event.enchantment.EnchantItemEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.inventory.FurnaceExtractEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.inventory.PrepareItemCraftEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerFishEvent;
+import org.bukkit.event.player.PlayerItemBreakEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.player.PlayerItemDamageEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerItemMendEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 按配置注册物品事件监听
+ * 每个处理方法单独注册，只注册启用的获取途径和功能需要的事件，关闭的途径没有任何分发开销。
+ * 重载配置时先注销之前的所有注册再重新注册
+ */
+public class SourceListenerRegistrar {
+
+    private final Itemslore plugin;
+    private final ItemEventListener itemListener;
+    private final AdvancedItemEventListener advancedListener;
+
+    // 每个注册对应一个标记对象，注销时使用
+    private final List<Listener> registrations = new ArrayList<>();
+
+    public SourceListenerRegistrar(Itemslore plugin, LoreManager loreManager) {
+        this.plugin = plugin;
+        this.itemListener = new ItemEventListener(plugin, loreManager);
+        this.advancedListener = new AdvancedItemEventListener(plugin, loreManager);
+    }
+
+    /**
+     * 按配置快照重新注册事件监听
+     * @param settings 配置快照
+     */
+    public void apply(LoreSettings settings) {
+        unregisterAll();
+
+        if (settings.isSourceEnabled(ItemSource.PICKUP)) {
+            register(EntityPickupItemEvent.class, EventPriority.NORMAL, itemListener::onEntityPickupItem);
+            register(EntityDeathEvent.class, EventPriority.NORMAL, itemListener::onEntityDeath);
+            register(ItemSpawnEvent.class, EventPriority.NORMAL, itemListener::onItemSpawn);
+            if (settings.isProcessDropsFromBrokenBlocks()) {
+                register(BlockDropItemEvent.class, EventPriority.NORMAL, itemListener::onBlockDropItem);
+            }
+            // 处理队列和后台渲染的物品在处理前离开背包时清除标记
+            if (settings.isQueueEnabled() || settings.isAsyncRenderEnabled()) {
+                register(PlayerDropItemEvent.class, EventPriority.HIGHEST, itemListener::onPlayerDropItem);
+                register(InventoryCloseEvent.class, EventPriority.NORMAL, itemListener::onContainerClose);
+            }
+        }
+
+        if (settings.isSourceEnabled(ItemSource.CRAFT)) {
+            register(CraftItemEvent.class, EventPriority.NORMAL, itemListener::onCraftItem);
+            register(PrepareItemCraftEvent.class, EventPriority.NORMAL, itemListener::onPrepareCraftItem);
+            register(InventoryCloseEvent.class, EventPriority.MONITOR, itemListener::onInventoryClose);
+        }
+
+        if (settings.isSourceEnabled(ItemSource.FURNACE)) {
+            register(FurnaceExtractEvent.class, EventPriority.NORMAL, itemListener::onFurnaceExtract);
+        }
+
+        if (settings.isSourceEnabled(ItemSource.FISHING)) {
+            register(PlayerFishEvent.class, EventPriority.NORMAL, itemListener::onPlayerFish);
+        }
+
+        if (settings.isSourceEnabled(ItemSource.CONSUME)) {
+            register(PlayerItemConsumeEvent.class, EventPriority.NORMAL, itemListener::onItemConsume);
+        }
+
+        if (settings.isSourceEnabled(ItemSource.ENCHANT)) {
+            register(EnchantItemEvent.class, EventPriority.NORMAL, advancedListener::onEnchantItem);
+        }
+
+        // 经验修补同时负责更新耐久度行
+        if (settings.isSourceEnabled(ItemSource.MEND) || settings.isLiveDurability()) {
+            register(PlayerItemMendEvent.class, EventPriority.NORMAL, advancedListener::onItemMend);
+        }
+
+        if (settings.isSourceEnabled(ItemSource.SWAP)) {
+            register(PlayerSwapHandItemsEvent.class, EventPriority.NORMAL, advancedListener::onSwapHandItems);
+        }
+
+        // 铁砧和锻造台共用一个点击事件处理
+        if (settings.isSourceEnabled(ItemSource.ANVIL) || settings.isSourceEnabled(ItemSource.SMITHING)) {
+            register(InventoryClickEvent.class, EventPriority.NORMAL, advancedListener::onResultClick);
+        }
+
+        if (settings.isLiveDurability()) {
+            register(PlayerItemDamageEvent.class, EventPriority.NORMAL, advancedListener::onItemDamage);
+        }
+
+        if (settings.isRelativeTimeUsed()) {
+            register(InventoryOpenEvent.class, EventPriority.NORMAL, advancedListener::onInventoryOpen);
+            register(PlayerItemHeldEvent.class, EventPriority.NORMAL, advancedListener::onItemHeld);
+        }
+
+        if (settings.isDebug()) {
+            register(PlayerItemBreakEvent.class, EventPriority.NORMAL, advancedListener::onItemBreak);
+        }
+
+        if (settings.isDebug()) {
+            plugin.getLogger().info("已注册 " + registrations.size() + " 个物品事件监听");
+        }
+    }
+
+    /**
+     * 注册单个事件处理方法，已取消的事件不处理
+     * 子类事件共用父类的处理列表，执行前需要检查事件类型
+     */
+    private <T extends Event> void register(Class<T> eventClass, EventPriority priority, Consumer<T> handler) {
+        Listener registration = new Listener() { };
+        plugin.getServer().getPluginManager().registerEvent(eventClass, registration, priority,
+                (listener, event) -> {
+                    if (eventClass.isInstance(event)) {
+                        handler.accept(eventClass.cast(event));
+                    }
+                }, plugin, true);
+        registrations.add(registration);
+    }
+
+    /**
+     * 注销所有物品事件监听
+     */
+    public void unregisterAll() {
+        for (Listener registration : registrations) {
+            HandlerList.unregisterAll(registration);
+        }
+        registrations.clear();
+    }
+}
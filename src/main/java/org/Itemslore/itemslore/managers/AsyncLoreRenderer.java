@@ -0,0 +1,336 @@
+package org.Itemslore.itemslore.managers;
+
+import io.papermc.paper.persistence.PersistentDataContainerView;
+import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.utils.LoreRenderContext;
+import org.Itemslore.itemslore.utils.PlaceholderBatch;
+import org.Itemslore.itemslore.utils.RandomLoreEntry;
+import org.Itemslore.itemslore.utils.RenderedLore;
+import org.Itemslore.itemslore.utils.VariableProcessor;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * 后台Lore渲染器
+ * 主线程读取物品数据、预先解析变量并在物品上写入凭据，随机Lore、模板和颜色在后台线程生成，
+ * 完成后回到主线程按凭据在玩家背包中找回物品并写入Lore。
+ * 同一玩家同一来源的物品共用一个凭据，渲染期间相同物品仍然可以堆叠，凭据不代表已处理
+ */
+public class AsyncLoreRenderer {
+    // 插件关闭时等待后台渲染完成的最长时间
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 3000L;
+
+    private final Itemslore plugin;
+    private final LoreManager loreManager;
+    private final VariableProcessor variableProcessor;
+
+    // 首次使用时创建，线程数量在创建后不再改变
+    private ExecutorService executor;
+
+    // 凭据只在主线程访问
+    private final Map<Long, Ticket> tickets = new HashMap<>();
+    private final Map<UUID, Map<String, Ticket>> playerTickets = new HashMap<>();
+
+    // 后台线程完成的渲染结果，回到主线程后写入
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+
+    public AsyncLoreRenderer(Itemslore plugin, LoreManager loreManager, VariableProcessor variableProcessor) {
+        this.plugin = plugin;
+        this.loreManager = loreManager;
+        this.variableProcessor = variableProcessor;
+    }
+
+    /**
+     * 提交物品的后台渲染，只能在主线程调用
+     * 物品上会写入凭据，调用者需要保证修改后的物品进入玩家背包
+     * @param item 物品
+     * @param player 玩家
+     * @param source 来源
+     * @return 是否已提交
+     */
+    public boolean submit(ItemStack item, Player player, String source) {
+        if (item == null || player == null) return false;
+
+        LoreSettings settings = plugin.getSettings();
+        ItemMeta meta = loreManager.prepareMeta(item, settings);
+        if (meta == null) return false;
+
+        Ticket ticket = ticketFor(player.getUniqueId(), source);
+        meta.getPersistentDataContainer().set(plugin.getItemDataKeys().getPendingRender(),
+                PersistentDataType.LONG, ticket.id);
+        item.setItemMeta(meta);
+
+        // 后台线程不能调用服务器和其他插件的接口，用到的变量在这里解析并封存。
+        // 随机Lore在主线程先抽取，只解析模板和抽中条目中的变量
+        PlaceholderBatch batch = variableProcessor.newBatch(player, item);
+        LoreRenderContext context = new LoreRenderContext(item, meta, player.getName(), source, settings, batch);
+        List<RandomLoreEntry> randomEntries = loreManager.drawRandomLores(context);
+        Map<String, VariableProcessor.Usage> tokens =
+                new LinkedHashMap<>(settings.getPlaceholderTokens(context.getPlan()));
+        for (RandomLoreEntry entry : randomEntries) {
+            VariableProcessor.collectTokens(entry.getText(), entry.getVariableUsage(), tokens);
+        }
+        variableProcessor.prefetch(batch, tokens);
+
+        long id = ticket.id;
+        // 渲染结果只写入和提交时相同的物品，同一凭据下的其他物品不会用到这份快照
+        ItemStack snapshot = item.clone();
+        ticket.inFlight++;
+        getExecutor(settings).execute(() -> {
+            RenderedLore rendered = null;
+            try {
+                rendered = loreManager.render(context, randomEntries);
+            } catch (Throwable e) {
+                plugin.getLogger().log(Level.WARNING, "后台渲染Lore时出错", e);
+            }
+            // 渲染失败同样需要回到主线程清除凭据
+            results.add(new Result(id, snapshot, rendered));
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, this::drain);
+            }
+        });
+        return true;
+    }
+
+    private Ticket ticketFor(UUID playerId, String source) {
+        Map<String, Ticket> bySource = playerTickets.computeIfAbsent(playerId, id -> new HashMap<>());
+        Ticket ticket = bySource.get(source);
+        if (ticket == null) {
+            long id;
+            do {
+                id = ThreadLocalRandom.current().nextLong();
+            } while (tickets.containsKey(id));
+            ticket = new Ticket(id, playerId, source);
+            bySource.put(source, ticket);
+            tickets.put(id, ticket);
+        }
+        return ticket;
+    }
+
+    /**
+     * 在主线程写入所有已完成的渲染结果
+     */
+    private void drain() {
+        Result result;
+        while ((result = results.poll()) != null) {
+            commit(result);
+        }
+    }
+
+    /**
+     * 在主线程写入渲染结果
+     * 在玩家背包中找到和提交时相同的物品写入Lore，物品已被其他途径处理或渲染失败时只清除凭据。
+     * 凭据的最后一个结果写入后，背包中仍带有该凭据的物品同样清除凭据
+     */
+    private void commit(Result result) {
+        Ticket ticket = tickets.get(result.ticket);
+        if (ticket == null) return;
+        ticket.inFlight--;
+
+        // 玩家退出时已清除背包中的凭据
+        Player player = Bukkit.getPlayer(ticket.playerId);
+        if (player == null || !player.isOnline()) {
+            if (ticket.inFlight <= 0) {
+                release(ticket);
+            }
+            return;
+        }
+
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null || item.getType().isAir() || !hasTicket(item, ticket)
+                    || !result.snapshot.isSimilar(item)) continue;
+
+            LoreSettings settings = plugin.getSettings();
+            ItemMeta meta = result.rendered != null ? loreManager.prepareMeta(item, settings) : null;
+            if (meta == null) {
+                loreManager.clearPendingRender(item);
+            } else {
+                loreManager.applyLore(item, meta, result.rendered, settings);
+                // 渲染期间耐久度可能已经改变，只更新这一件物品
+                loreManager.updateDurabilityLine(item);
+            }
+            inventory.setItem(slot, item);
+            break;
+        }
+
+        if (ticket.inFlight <= 0) {
+            clearTicket(inventory, ticket);
+            release(ticket);
+        }
+    }
+
+    private boolean hasTicket(ItemStack item, Ticket ticket) {
+        PersistentDataContainerView view = item.getPersistentDataContainer();
+        Long stored = view.get(plugin.getItemDataKeys().getPendingRender(), PersistentDataType.LONG);
+        return stored != null && stored == ticket.id;
+    }
+
+    /**
+     * 清除背包中带有该凭据的物品的凭据，恢复和相同物品堆叠，之后由其他途径正常处理
+     */
+    private void clearTicket(PlayerInventory inventory, Ticket ticket) {
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item != null && !item.getType().isAir() && hasTicket(item, ticket)
+                    && loreManager.clearPendingRender(item)) {
+                inventory.setItem(slot, item);
+            }
+        }
+    }
+
+    private void release(Ticket ticket) {
+        tickets.remove(ticket.id);
+        Map<String, Ticket> bySource = playerTickets.get(ticket.playerId);
+        if (bySource != null && bySource.get(ticket.source) == ticket) {
+            bySource.remove(ticket.source);
+            if (bySource.isEmpty()) {
+                playerTickets.remove(ticket.playerId);
+            }
+        }
+    }
+
+    /**
+     * 放弃玩家所有未完成的渲染，玩家退出时调用
+     * 背包中的物品会清除凭据，之后到达的渲染结果不再写入
+     * @param player 玩家
+     */
+    public void invalidate(Player player) {
+        Map<String, Ticket> bySource = playerTickets.remove(player.getUniqueId());
+        if (bySource == null) return;
+
+        PlayerInventory inventory = player.getInventory();
+        for (Ticket ticket : bySource.values()) {
+            clearTicket(inventory, ticket);
+            tickets.remove(ticket.id);
+        }
+    }
+
+    private synchronized ExecutorService getExecutor(LoreSettings settings) {
+        if (executor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, "ItemsLore-Render-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            executor = Executors.newFixedThreadPool(settings.getAsyncRenderThreads(), factory);
+        }
+        return executor;
+    }
+
+    /**
+     * 关闭后台线程，插件关闭时在主线程调用
+     * 等待已提交的渲染完成并直接写入，超时未完成的物品在主线程同步渲染
+     */
+    public void shutdown() {
+        ExecutorService current;
+        synchronized (this) {
+            current = executor;
+            executor = null;
+        }
+        if (current != null) {
+            current.shutdown();
+            try {
+                if (!current.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    current.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                current.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain();
+
+        // 剩余的凭据对应的渲染没有完成
+        LoreSettings settings = plugin.getSettings();
+        List<Ticket> remaining = new ArrayList<>(tickets.values());
+        for (Ticket ticket : remaining) {
+            Player player = Bukkit.getPlayer(ticket.playerId);
+            if (player != null && player.isOnline()) {
+                renderNow(player, ticket, settings);
+            }
+            release(ticket);
+        }
+    }
+
+    /**
+     * 在主线程同步渲染背包中带有该凭据的物品
+     */
+    private void renderNow(Player player, Ticket ticket, LoreSettings settings) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null || item.getType().isAir() || !hasTicket(item, ticket)) continue;
+
+            ItemMeta meta = loreManager.prepareMeta(item, settings);
+            if (meta == null) {
+                loreManager.clearPendingRender(item);
+            } else {
+                PlaceholderBatch batch = variableProcessor.newBatch(player, item);
+                LoreRenderContext context = new LoreRenderContext(item, meta, player.getName(), ticket.source,
+                        settings, batch);
+                loreManager.applyLore(item, meta, loreManager.render(context), settings);
+            }
+            inventory.setItem(slot, item);
+        }
+    }
+
+    /**
+     * 同一玩家同一来源共用的凭据
+     */
+    private static final class Ticket {
+        private final long id;
+        private final UUID playerId;
+        private final String source;
+        // 已提交但还没有写入的渲染数量
+        private int inFlight = 0;
+
+        Ticket(long id, UUID playerId, String source) {
+            this.id = id;
+            this.playerId = playerId;
+            this.source = source;
+        }
+    }
+
+    /**
+     * 后台线程完成的渲染结果
+     */
+    private static final class Result {
+        private final long ticket;
+        // 提交时写入凭据后的物品
+        private final ItemStack snapshot;
+        // 渲染失败时为null
+        private final RenderedLore rendered;
+
+        Result(long ticket, ItemStack snapshot, RenderedLore rendered) {
+            this.ticket = ticket;
+            this.snapshot = snapshot;
+            this.rendered = rendered;
+        }
+    }
+}
@@ -12,7 +12,8 @@ import java.io.IOException;
  */
 public class ConfigManager {
     private final Itemslore plugin;
-    private FileConfiguration config;
+    private volatile FileConfiguration config;
+    private volatile LoreSettings settings;
     
     public ConfigManager(Itemslore plugin) {
         this.plugin = plugin;
@@ -45,6 +46,23 @@ public class ConfigManager {
             plugin.saveResource("config.yml", false);
         }
         config = YamlConfiguration.loadConfiguration(configFile);
+        rebuildSettings();
+    }
+    
+    /**
+     * 根据当前配置重新构建配置快照
+     * 新快照构建完成后才替换引用，处理中的事件不会读到一半新一半旧的配置
+     */
+    public void rebuildSettings() {
+        settings = LoreSettings.load(config, plugin.getColorManager(), plugin.getLogger());
+    }
+    
+    /**
+     * 获取当前配置快照
+     * @return 配置快照
+     */
+    public LoreSettings getSettings() {
+        return settings;
     }
     
     /**
@@ -0,0 +1,107 @@
+package org.Itemslore.itemslore.managers;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 合成预览缓存
+ * 合成格每次变化都会触发PrepareItemCraftEvent，同一玩家的同一配方只渲染一次预览，
+ * 合成结果不变时直接复用，预览中的Lore就是合成后物品的Lore。
+ * 批量合成时预先渲染后续每次合成的结果，每次合成后依次取出一个作为新的预览，没有用到的结果在下一个tick清除
+ */
+public class CraftPreviewCache {
+    private final Map<UUID, Preview> previews = new HashMap<>();
+
+    /**
+     * 获取玩家当前的预览
+     * @param playerId 玩家UUID
+     * @param recipeKey 配方键
+     * @param material 合成结果的材质
+     * @return 预览的副本，配方或材质不同时返回null
+     */
+    public ItemStack get(UUID playerId, NamespacedKey recipeKey, Material material) {
+        Preview preview = previews.get(playerId);
+        if (preview == null || preview.material != material || !preview.recipeKey.equals(recipeKey)) {
+            return null;
+        }
+
+        // 批量合成中，每次合成后换成下一个预先渲染的结果
+        ItemStack next = preview.pending.poll();
+        if (next != null) {
+            preview.item = next;
+        }
+        return preview.item.clone();
+    }
+
+    /**
+     * 记录玩家的预览，替换之前的预览
+     * @param playerId 玩家UUID
+     * @param recipeKey 配方键
+     * @param item 已添加Lore的合成结果
+     */
+    public void put(UUID playerId, NamespacedKey recipeKey, ItemStack item) {
+        previews.put(playerId, new Preview(recipeKey, item.getType(), item.clone()));
+    }
+
+    /**
+     * 记录批量合成中后续每次合成的结果
+     * @param playerId 玩家UUID
+     * @param recipeKey 配方键
+     * @param items 已添加Lore的合成结果，按合成顺序排列
+     */
+    public void offer(UUID playerId, NamespacedKey recipeKey, List<ItemStack> items) {
+        Preview preview = previews.get(playerId);
+        if (preview == null || !preview.recipeKey.equals(recipeKey)) return;
+
+        preview.pending.clear();
+        preview.pending.addAll(items);
+    }
+
+    /**
+     * 清除批量合成中没有用到的结果，保留当前预览
+     * @param playerId 玩家UUID
+     */
+    public void clearPending(UUID playerId) {
+        Preview preview = previews.get(playerId);
+        if (preview != null) {
+            preview.pending.clear();
+        }
+    }
+
+    /**
+     * 清除玩家的预览，合成完成、关闭界面或退出时调用
+     * @param playerId 玩家UUID
+     */
+    public void invalidate(UUID playerId) {
+        previews.remove(playerId);
+    }
+
+    /**
+     * 清除所有预览，重载配置时调用
+     */
+    public void clear() {
+        previews.clear();
+    }
+
+    private static final class Preview {
+        private final NamespacedKey recipeKey;
+        private final Material material;
+        private ItemStack item;
+        // 批量合成中等待使用的结果
+        private final Deque<ItemStack> pending = new ArrayDeque<>();
+
+        Preview(NamespacedKey recipeKey, Material material, ItemStack item) {
+            this.recipeKey = recipeKey;
+            this.material = material;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.Itemslore.itemslore.managers;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 实时耐久度更新器
+ * 物品受损或修补时只记录玩家和装备栏位，下一个tick从背包中取出这些栏位当前的物品更新耐久度行，
+ * 同一tick内同一栏位的多次受损只写入一次ItemMeta，其他装备不受影响
+ */
+public class DurabilityUpdater {
+    // 玩家可能受损或修补的装备栏位
+    private static final EquipmentSlot[] SLOTS = {
+            EquipmentSlot.HAND, EquipmentSlot.OFF_HAND,
+            EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET
+    };
+
+    private final Itemslore plugin;
+    private final LoreManager loreManager;
+
+    // 等待更新的玩家和栏位
+    private final Map<UUID, Set<EquipmentSlot>> dirtySlots = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+
+    public DurabilityUpdater(Itemslore plugin, LoreManager loreManager) {
+        this.plugin = plugin;
+        this.loreManager = loreManager;
+    }
+
+    /**
+     * 标记玩家装备栏位中的物品需要更新耐久度行
+     * 事件触发时耐久度还没有改变，实际更新在下一个tick进行
+     * @param player 玩家
+     * @param slot 装备栏位
+     */
+    public void markDirty(Player player, EquipmentSlot slot) {
+        if (slot == null || !plugin.getSettings().isLiveDurability()) {
+            return;
+        }
+
+        dirtySlots.computeIfAbsent(player.getUniqueId(), id -> EnumSet.noneOf(EquipmentSlot.class)).add(slot);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    /**
+     * 标记玩家身上与事件物品相同的装备需要更新耐久度行，用于没有提供栏位的事件
+     * @param player 玩家
+     * @param item 受损事件中的物品
+     */
+    public void markDirty(Player player, ItemStack item) {
+        if (item == null || !plugin.getSettings().isLiveDurability()) {
+            return;
+        }
+
+        PlayerInventory inventory = player.getInventory();
+        for (EquipmentSlot slot : SLOTS) {
+            if (item.equals(inventory.getItem(slot))) {
+                markDirty(player, slot);
+            }
+        }
+    }
+
+    /**
+     * 更新所有被标记的栏位中当前的物品
+     */
+    private void flush() {
+        flushScheduled = false;
+
+        for (Map.Entry<UUID, Set<EquipmentSlot>> entry : dirtySlots.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player == null || !player.isOnline()) continue;
+
+            PlayerInventory inventory = player.getInventory();
+            for (EquipmentSlot slot : entry.getValue()) {
+                ItemStack item = inventory.getItem(slot);
+                if (loreManager.updateDurabilityLine(item)) {
+                    inventory.setItem(slot, item);
+                }
+            }
+        }
+        dirtySlots.clear();
+    }
+}
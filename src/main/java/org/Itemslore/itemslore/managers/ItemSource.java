@@ -0,0 +1,40 @@
+package org.Itemslore.itemslore.managers;
+
+/**
+ * 物品获取途径
+ * 每个途径对应配置中sources下的一个开关，关闭的途径不注册事件监听
+ */
+public enum ItemSource {
+    PICKUP("pickup", true),       // 拾取（包括生物和方块掉落物的来源标记）
+    CRAFT("craft", true),         // 合成
+    ENCHANT("enchant", true),     // 附魔
+    MEND("mend", true),           // 经验修补
+    SWAP("swap", true),           // 主副手交换
+    ANVIL("anvil", true),         // 铁砧
+    SMITHING("smithing", true),   // 锻造台
+    FISHING("fishing", true),     // 钓鱼
+    FURNACE("furnace", true),     // 熔炼
+    CONSUME("consume", false);    // 消耗
+
+    private final String key;
+    private final boolean enabledByDefault;
+
+    ItemSource(String key, boolean enabledByDefault) {
+        this.key = key;
+        this.enabledByDefault = enabledByDefault;
+    }
+
+    /**
+     * 配置中的键名
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 配置中没有设置时是否启用
+     */
+    public boolean isEnabledByDefault() {
+        return enabledByDefault;
+    }
+}
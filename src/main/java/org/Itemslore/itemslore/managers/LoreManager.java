@@ -1,10 +1,14 @@
 package org.Itemslore.itemslore.managers;
 
+import io.papermc.paper.persistence.PersistentDataContainerView;
 import org.Itemslore.itemslore.Itemslore;
 import org.Itemslore.itemslore.utils.*;
+import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +23,6 @@ public class LoreManager {
     private final VariableProcessor variableProcessor;
     private final RandomLoreGenerator randomLoreGenerator;
     private final LoreTemplateManager loreTemplateManager;
-    private final ItemTypeChecker itemTypeChecker;
     
     // 已有Lore处理模式
     public enum ExistingLoreMode {
@@ -34,7 +37,6 @@ public class LoreManager {
         this.variableProcessor = variableProcessor;
         this.randomLoreGenerator = new RandomLoreGenerator(plugin, colorManager, variableProcessor);
         this.loreTemplateManager = new LoreTemplateManager(plugin, colorManager, variableProcessor);
-        this.itemTypeChecker = new ItemTypeChecker();
     }
     
     /**
@@ -47,55 +49,176 @@ public class LoreManager {
     public boolean addLoreToItem(ItemStack item, Player player, String source) {
         if (item == null || player == null) return false;
         
-        ItemMeta meta = item.getItemMeta();
+        // 整个处理过程使用同一份配置快照，避免重载时读到不一致的配置
+        LoreSettings settings = plugin.getSettings();
+        
+        ItemMeta meta = prepareMeta(item, settings);
         if (meta == null) return false;
         
-        List<String> existingLore = meta.hasLore() ? meta.getLore() : new ArrayList<>();
-        if (existingLore == null) existingLore = new ArrayList<>();
+        // 模板、自定义Lore和随机Lore共用一个变量批次，相同的外部变量只解析一次
+        PlaceholderBatch batch = variableProcessor.newBatch(player, item);
+        LoreRenderContext context = new LoreRenderContext(item, meta, player.getName(), source, settings, batch);
         
-        // 检查物品是否已被处理（通过检测关键字）
-        if (hasPluginLore(existingLore)) {
-            if (plugin.getConfig().getBoolean("debug", false)) {
-                plugin.getLogger().info("物品已有插件Lore，跳过处理");
+        // 渲染过程不再读取物品的ItemMeta，结果写入同一个ItemMeta后只写回一次
+        applyLore(item, context.getMeta(), render(context), settings);
+        return true;
+    }
+    
+    /**
+     * 为同一物品的多个副本添加Lore，用于批量合成
+     * 所有副本共用配置快照、玩家数据、变量批次和获取时间，只有随机Lore各自抽取
+     * @param item 物品，不会被修改
+     * @param count 副本数量
+     * @param player 玩家
+     * @param source 来源
+     * @return 已添加Lore的副本，物品不需要处理时返回空列表
+     */
+    public List<ItemStack> addLoreToCopies(ItemStack item, int count, Player player, String source) {
+        List<ItemStack> copies = new ArrayList<>(Math.max(count, 0));
+        if (item == null || player == null || count <= 0) return copies;
+        
+        LoreSettings settings = plugin.getSettings();
+        ItemStack base = item.clone();
+        ItemMeta baseMeta = prepareMeta(base, settings);
+        if (baseMeta == null) return copies;
+        
+        PlaceholderBatch batch = variableProcessor.newBatch(player, base);
+        LoreRenderContext context = new LoreRenderContext(base, baseMeta, player.getName(), source, settings, batch);
+        long acquiredAt = System.currentTimeMillis();
+        
+        for (int i = 0; i < count; i++) {
+            ItemStack copy = base.clone();
+            applyLore(copy, baseMeta.clone(), render(context), settings, acquiredAt);
+            copies.add(copy);
+        }
+        return copies;
+    }
+    
+    /**
+     * 检查物品是否需要添加Lore
+     * 没有处理标记但已有插件Lore的旧物品会补写标记
+     * @param item 物品
+     * @param settings 配置快照
+     * @return 物品的ItemMeta，不需要添加Lore时返回null
+     */
+    public ItemMeta prepareMeta(ItemStack item, LoreSettings settings) {
+        // 先检查已处理标记，只读取物品数据视图，不复制ItemMeta
+        if (isProcessed(item)) {
+            if (settings.isDebug()) {
+                plugin.getLogger().info("物品已有处理标记，跳过处理");
             }
-            return false;
+            return null;
         }
         
-        // 获取已有Lore处理模式
-        ExistingLoreMode mode = getExistingLoreMode();
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return null;
+        
+        List<String> existingLore = meta.hasLore() ? meta.getLore() : null;
+        if (existingLore == null || existingLore.isEmpty()) {
+            return meta;
+        }
+        
+        // 没有标记的旧物品通过检测关键字判断
+        if (hasPluginLore(existingLore, settings)) {
+            // 补写标记，之后的检查不再需要扫描Lore
+            markProcessed(meta);
+            item.setItemMeta(meta);
+            
+            if (settings.isDebug()) {
+                plugin.getLogger().info("物品已有插件Lore，跳过处理");
+            }
+            return null;
+        }
         
         // 如果已有Lore且模式为IGNORE，则跳过处理
-        if (!existingLore.isEmpty() && mode == ExistingLoreMode.IGNORE) {
-            if (plugin.getConfig().getBoolean("debug", false)) {
+        if (settings.getExistingLoreMode() == ExistingLoreMode.IGNORE) {
+            if (settings.isDebug()) {
                 plugin.getLogger().info("物品已有Lore且处理模式为IGNORE，跳过处理");
             }
-            return false;
+            return null;
         }
         
-        // 首先获取随机lore
-        List<String> randomLores = randomLoreGenerator.getRandomLores(item, player);
+        return meta;
+    }
+    
+    /**
+     * 生成物品的Lore
+     * 只使用渲染上下文中的快照，可以在后台线程调用
+     * @param context 渲染上下文
+     * @return 渲染结果
+     */
+    public RenderedLore render(LoreRenderContext context) {
+        // 首先获取随机lore，简化渲染时跳过
+        List<String> randomLores = context.isReduced()
+                ? new ArrayList<>()
+                : randomLoreGenerator.getRandomLores(context);
         
         // 生成新的lore
-        List<String> newLore = loreTemplateManager.generateLoreFromTemplate(item, player, source, randomLores);
+        return loreTemplateManager.generateLoreFromTemplate(context, randomLores);
+    }
+    
+    /**
+     * 抽取随机Lore条目，不处理变量，简化渲染时返回空列表
+     * @param context 渲染上下文
+     * @return 按最终顺序排列的条目
+     */
+    public List<RandomLoreEntry> drawRandomLores(LoreRenderContext context) {
+        return context.isReduced() ? new ArrayList<>() : randomLoreGenerator.drawEntries(context);
+    }
+    
+    /**
+     * 使用已抽取的随机Lore条目生成物品的Lore
+     * 只使用渲染上下文中的快照，可以在后台线程调用
+     * @param context 渲染上下文
+     * @param randomEntries drawRandomLores返回的条目
+     * @return 渲染结果
+     */
+    public RenderedLore render(LoreRenderContext context, List<RandomLoreEntry> randomEntries) {
+        List<String> randomLores = randomLoreGenerator.resolveEntries(randomEntries, context.getBatch());
+        return loreTemplateManager.generateLoreFromTemplate(context, randomLores);
+    }
+    
+    /**
+     * 按已有Lore处理模式把渲染结果写入物品，并写入已处理标记
+     * @param item 物品
+     * @param meta 物品的ItemMeta，由prepareMeta返回
+     * @param rendered 渲染结果
+     * @param settings 配置快照
+     */
+    public void applyLore(ItemStack item, ItemMeta meta, RenderedLore rendered, LoreSettings settings) {
+        applyLore(item, meta, rendered, settings, System.currentTimeMillis());
+    }
+    
+    /**
+     * 按已有Lore处理模式把渲染结果写入物品，并写入已处理标记
+     * @param item 物品
+     * @param meta 物品的ItemMeta，由prepareMeta返回
+     * @param rendered 渲染结果
+     * @param settings 配置快照
+     * @param acquiredAt 获取时间（毫秒时间戳）
+     */
+    public void applyLore(ItemStack item, ItemMeta meta, RenderedLore rendered, LoreSettings settings,
+                          long acquiredAt) {
+        List<String> existingLore = meta.hasLore() ? meta.getLore() : null;
+        List<String> newLore = rendered.getLines();
         
         // 根据处理模式添加Lore
         List<String> finalLore;
         
-        if (existingLore.isEmpty() || mode == ExistingLoreMode.OVERWRITE) {
+        if (existingLore == null || existingLore.isEmpty()
+                || settings.getExistingLoreMode() == ExistingLoreMode.OVERWRITE) {
             // 如果没有已有Lore或模式为覆盖，直接使用新的Lore
             finalLore = newLore;
-                } else {
+        } else {
             // 模式为追加，将新Lore添加到已有Lore后面
             finalLore = new ArrayList<>(existingLore);
             
             // 如果配置了添加分隔线，则添加一个分隔线
-            if (plugin.getConfig().getBoolean("existing-lore.add-separator", true)) {
-                String separator = plugin.getConfig().getString("existing-lore.separator-style", 
-                                                              "&8&m· · · · · · · · · · · · · · · · · · · ·");
+            if (settings.isExistingLoreAddSeparator()) {
                 finalLore.add("");
-                finalLore.add(colorManager.colorize(separator));
+                finalLore.add(colorManager.colorize(settings.getExistingLoreSeparator()));
                 finalLore.add("");
-                } else {
+            } else {
                 // 否则只添加一个空行
                 finalLore.add("");
             }
@@ -104,61 +227,161 @@ public class LoreManager {
             finalLore.addAll(newLore);
         }
         
-        // 设置新的lore
+        // 设置新的lore并写入已处理标记，同时清除后台渲染的凭据
         meta.setLore(finalLore);
+        markProcessed(meta);
+        meta.getPersistentDataContainer().remove(plugin.getItemDataKeys().getPendingRender());
+        
+        // 记录耐久度行的位置，新Lore总是位于最后
+        if (rendered.getDurabilityLine() >= 0) {
+            int durabilityLine = finalLore.size() - newLore.size() + rendered.getDurabilityLine();
+            meta.getPersistentDataContainer().set(plugin.getItemDataKeys().getDurabilityLine(),
+                    PersistentDataType.INTEGER, durabilityLine);
+        }
+        
+        // 记录获取时间和相对时间行的位置，查看物品时再更新
+        if (rendered.getRelativeTimeLine() >= 0) {
+            ItemDataKeys keys = plugin.getItemDataKeys();
+            PersistentDataContainer container = meta.getPersistentDataContainer();
+            int relativeTimeLine = finalLore.size() - newLore.size() + rendered.getRelativeTimeLine();
+            container.set(keys.getAcquired(), PersistentDataType.LONG, acquiredAt);
+            container.set(keys.getRelativeTimeLine(), PersistentDataType.INTEGER, relativeTimeLine);
+            container.set(keys.getRelativeTimeBucket(), PersistentDataType.LONG, 0L);
+        }
         item.setItemMeta(meta);
+    }
+    
+    /**
+     * 清除物品上等待渲染的标记
+     * 带标记的物品不算已处理，清除后可以和相同物品堆叠，之后由其他获取途径正常添加Lore
+     * @param item 物品
+     * @return 是否清除，物品没有标记时不修改物品
+     */
+    public boolean clearPendingRender(ItemStack item) {
+        if (item == null || item.getType().isAir()) return false;
+        
+        NamespacedKey key = plugin.getItemDataKeys().getPendingRender();
+        if (!item.getPersistentDataContainer().has(key, PersistentDataType.LONG)) return false;
         
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return false;
+        meta.getPersistentDataContainer().remove(key);
+        item.setItemMeta(meta);
         return true;
     }
     
     /**
-     * 获取已有Lore的处理模式
-     * @return 处理模式枚举
+     * 检查物品是否带有已处理标记
+     * @param item 物品
+     * @return 是否已处理
+     */
+    public boolean isProcessed(ItemStack item) {
+        return item.getPersistentDataContainer().has(plugin.getItemDataKeys().getProcessed());
+    }
+    
+    /**
+     * 在物品Meta中写入已处理标记
+     * @param meta 物品Meta
      */
-    private ExistingLoreMode getExistingLoreMode() {
-        String modeStr = plugin.getConfig().getString("existing-lore.mode", "APPEND").toUpperCase();
-        try {
-            return ExistingLoreMode.valueOf(modeStr);
-        } catch (IllegalArgumentException e) {
-            plugin.getLogger().warning("无效的existing-lore.mode配置值: " + modeStr + "，使用默认值APPEND");
-            return ExistingLoreMode.APPEND;
+    private void markProcessed(ItemMeta meta) {
+        meta.getPersistentDataContainer().set(plugin.getItemDataKeys().getProcessed(),
+                PersistentDataType.INTEGER, ItemDataKeys.PROCESSED_FORMAT_VERSION);
+    }
+    
+    /**
+     * 清除物品Meta中的已处理标记
+     * @param meta 物品Meta
+     */
+    public void clearProcessed(ItemMeta meta) {
+        meta.getPersistentDataContainer().remove(plugin.getItemDataKeys().getProcessed());
+        meta.getPersistentDataContainer().remove(plugin.getItemDataKeys().getDurabilityLine());
+        meta.getPersistentDataContainer().remove(plugin.getItemDataKeys().getAcquired());
+        meta.getPersistentDataContainer().remove(plugin.getItemDataKeys().getRelativeTimeLine());
+        meta.getPersistentDataContainer().remove(plugin.getItemDataKeys().getRelativeTimeBucket());
+    }
+    
+    /**
+     * 按获取后经过的时间更新相对时间行
+     * 先通过只读的物品数据视图比较分段，分段没有变化时不复制ItemMeta
+     * @param item 物品
+     * @param now 当前时间（毫秒）
+     * @return 是否更新
+     */
+    public boolean refreshRelativeTime(ItemStack item, long now) {
+        if (item == null || item.getType().isAir()) return false;
+        
+        ItemDataKeys keys = plugin.getItemDataKeys();
+        PersistentDataContainerView view = item.getPersistentDataContainer();
+        Long acquired = view.get(keys.getAcquired(), PersistentDataType.LONG);
+        if (acquired == null) return false;
+        
+        LoreSettings settings = plugin.getSettings();
+        long elapsed = Math.max(0L, now - acquired);
+        long bucket = settings.getRelativeTimeFormat().bucket(elapsed);
+        Long renderedBucket = view.get(keys.getRelativeTimeBucket(), PersistentDataType.LONG);
+        if (renderedBucket != null && renderedBucket == bucket) return false;
+        
+        Integer index = view.get(keys.getRelativeTimeLine(), PersistentDataType.INTEGER);
+        ItemMeta meta = item.getItemMeta();
+        if (index == null || meta == null || !meta.hasLore()) return false;
+        
+        List<String> lore = meta.getLore();
+        if (lore == null || index < 0 || index >= lore.size()) return false;
+        
+        String line = loreTemplateManager.renderRelativeTimeLine(
+                new LoreRenderContext(item, meta, null, null, settings, null), elapsed);
+        if (line == null) return false;
+        
+        // 分段改变但文本相同时（例如自定义格式没有数量）只更新分段标识
+        if (!line.equals(lore.get(index))) {
+            lore.set(index, line);
+            meta.setLore(lore);
         }
+        meta.getPersistentDataContainer().set(keys.getRelativeTimeBucket(), PersistentDataType.LONG, bucket);
+        item.setItemMeta(meta);
+        return true;
+    }
+    
+    /**
+     * 按物品当前的耐久度更新耐久度行
+     * 只读取物品数据视图判断是否记录了耐久度行，内容没有变化时不写回ItemMeta
+     * @param item 物品
+     * @return 是否更新
+     */
+    public boolean updateDurabilityLine(ItemStack item) {
+        if (item == null || item.getType().getMaxDurability() <= 0) return false;
+        
+        Integer index = item.getPersistentDataContainer().get(plugin.getItemDataKeys().getDurabilityLine(),
+                PersistentDataType.INTEGER);
+        if (index == null) return false;
+        
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null || !meta.hasLore()) return false;
+        
+        List<String> lore = meta.getLore();
+        if (lore == null || index < 0 || index >= lore.size()) return false;
+        
+        String line = loreTemplateManager.renderDurabilityLine(
+                new LoreRenderContext(item, meta, null, null, plugin.getSettings(), null));
+        if (line == null || line.equals(lore.get(index))) return false;
+        
+        lore.set(index, line);
+        meta.setLore(lore);
+        item.setItemMeta(meta);
+        return true;
     }
     
     /**
      * 检查物品是否已经有插件生成的Lore
      * @param lore 物品Lore列表
+     * @param settings 配置快照
      * @return 是否包含插件Lore
      */
-    private boolean hasPluginLore(List<String> lore) {
+    private boolean hasPluginLore(List<String> lore, LoreSettings settings) {
         if (lore.isEmpty()) return false;
         
-        List<String> detectionKeywords = plugin.getConfig().getStringList("existing-lore.detection-keywords");
-        if (detectionKeywords.isEmpty()) {
-            // 默认检测关键字
-            detectionKeywords = new ArrayList<>();
-            detectionKeywords.add("&8❖ &7耐久");
-            detectionKeywords.add("&7获取时间");
-            detectionKeywords.add("&7获取者");
-            detectionKeywords.add("&7来源");
-        }
-        
-        // 将检测关键字转换为颜色代码
-        List<String> coloredKeywords = new ArrayList<>();
-        for (String keyword : detectionKeywords) {
-            coloredKeywords.add(colorManager.colorize(keyword));
-        }
-        
-        // 检查是否包含任一关键字
-        for (String line : lore) {
-            for (String keyword : coloredKeywords) {
-                if (line.contains(keyword)) {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        // 关键字在重载配置时已着色并编译为自动机
+        return settings.getDetectionMatcher().matchesAny(lore);
     }
     
     /**
@@ -169,7 +392,7 @@ public class LoreManager {
     public boolean shouldProcessItem(ItemStack item) {
         if (item == null || item.getType().isAir()) return false;
         
-        List<String> itemTypes = plugin.getConfig().getStringList("item-types");
-        return itemTypeChecker.shouldProcessItemType(item.getType(), itemTypes);
+        // 可处理的材质在重载配置时已计算好
+        return plugin.getSettings().isProcessable(item.getType());
     }
 } 
\ No newline at end of file
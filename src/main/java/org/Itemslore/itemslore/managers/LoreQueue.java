@@ -0,0 +1,328 @@
+package org.Itemslore.itemslore.managers;
+
+import io.papermc.paper.persistence.PersistentDataContainerView;
+import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.utils.LoreRenderContext;
+import org.Itemslore.itemslore.utils.PlaceholderBatch;
+import org.Itemslore.itemslore.utils.VariableProcessor;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lore处理队列
+ * 拾取物品时只在物品上写入标记，之后每tick在时间预算内按标记在玩家背包中找到物品并添加Lore。
+ * 同一玩家同一来源的物品共用一个标记，拾取后堆叠在同一格的物品只处理一次。
+ * 标记不代表已处理，物品在处理前离开背包时清除标记，下次获取时重新添加Lore
+ */
+public class LoreQueue {
+    private final Itemslore plugin;
+    private final LoreManager loreManager;
+    private final VariableProcessor variableProcessor;
+
+    // 按加入顺序处理的玩家任务
+    private final Map<UUID, PlayerJob> jobs = new LinkedHashMap<>();
+    private boolean tickScheduled = false;
+
+    // 等待处理的拾取次数
+    private int depth = 0;
+
+    // 统计
+    private long processed = 0;
+    private long coalesced = 0;
+    private long reduced = 0;
+    private long dropped = 0;
+
+    public LoreQueue(Itemslore plugin, LoreManager loreManager, VariableProcessor variableProcessor) {
+        this.plugin = plugin;
+        this.loreManager = loreManager;
+        this.variableProcessor = variableProcessor;
+    }
+
+    /**
+     * 把拾取的物品加入队列，只能在主线程调用
+     * 物品上会写入标记，调用者需要保证修改后的物品进入玩家背包。
+     * 队列已满时直接简化处理，不生成随机Lore，不解析外部变量
+     * @param item 物品
+     * @param player 玩家
+     * @param source 来源
+     * @return 物品是否被修改；物品不需要处理时返回false
+     */
+    public boolean enqueue(ItemStack item, Player player, String source) {
+        if (item == null || player == null) return false;
+
+        LoreSettings settings = plugin.getSettings();
+        ItemMeta meta = loreManager.prepareMeta(item, settings);
+        if (meta == null) return false;
+
+        if (settings.getQueueMaxSize() > 0 && depth >= settings.getQueueMaxSize()) {
+            render(item, meta, player, source, settings, true);
+            return true;
+        }
+
+        PlayerJob job = jobs.computeIfAbsent(player.getUniqueId(), PlayerJob::new);
+        meta.getPersistentDataContainer().set(plugin.getItemDataKeys().getPendingRender(),
+                PersistentDataType.LONG, job.ticketFor(source));
+        item.setItemMeta(meta);
+
+        job.pickups++;
+        depth++;
+        scheduleTick();
+        return true;
+    }
+
+    private void scheduleTick() {
+        if (!tickScheduled) {
+            tickScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::tick);
+        }
+    }
+
+    /**
+     * 在时间预算内处理队列，未处理完的物品留到下一个tick
+     */
+    private void tick() {
+        tickScheduled = false;
+
+        LoreSettings settings = plugin.getSettings();
+        long deadline = System.nanoTime() + settings.getQueueBudgetNanos();
+        int maxItems = settings.getQueueMaxItemsPerTick();
+        int handled = 0;
+        boolean exhausted = false;
+
+        Iterator<PlayerJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext() && !exhausted) {
+            PlayerJob job = iterator.next();
+            Player player = Bukkit.getPlayer(job.playerId);
+            if (player == null || !player.isOnline()) {
+                dropped += job.pickups;
+                finish(iterator, job);
+                continue;
+            }
+
+            boolean complete = true;
+            PlayerInventory inventory = player.getInventory();
+            ItemStack[] contents = inventory.getContents();
+            for (int slot = 0; slot < contents.length; slot++) {
+                ItemStack item = contents[slot];
+                String source = sourceOf(item, job);
+                if (source == null) continue;
+
+                // 每tick至少处理一格，保证队列总能前进
+                if (handled > 0 && ((maxItems > 0 && handled >= maxItems)
+                        || (settings.getQueueBudgetNanos() > 0 && System.nanoTime() >= deadline))) {
+                    complete = false;
+                    exhausted = true;
+                    break;
+                }
+
+                process(item, player, source, settings);
+                inventory.setItem(slot, item);
+                job.rendered++;
+                handled++;
+            }
+
+            if (complete) {
+                finish(iterator, job);
+            }
+        }
+
+        if (!jobs.isEmpty()) {
+            scheduleTick();
+        }
+    }
+
+    /**
+     * 获取物品上属于该任务的标记对应的来源
+     * @return 来源，物品没有标记或标记不属于该任务时返回null
+     */
+    private String sourceOf(ItemStack item, PlayerJob job) {
+        if (item == null || item.getType().isAir()) return null;
+
+        PersistentDataContainerView view = item.getPersistentDataContainer();
+        Long ticket = view.get(plugin.getItemDataKeys().getPendingRender(), PersistentDataType.LONG);
+        return ticket != null ? job.sources.get(ticket) : null;
+    }
+
+    /**
+     * 为背包中带标记的物品添加Lore，积压超过警戒线时简化渲染
+     */
+    private void process(ItemStack item, Player player, String source, LoreSettings settings) {
+        ItemMeta meta = loreManager.prepareMeta(item, settings);
+        if (meta == null) {
+            // 已被其他途径处理，只清除标记
+            loreManager.clearPendingRender(item);
+            return;
+        }
+
+        boolean reduce = settings.getQueueHighWaterMark() > 0 && depth > settings.getQueueHighWaterMark();
+        render(item, meta, player, source, settings, reduce);
+    }
+
+    private void render(ItemStack item, ItemMeta meta, Player player, String source, LoreSettings settings,
+                        boolean reduce) {
+        PlaceholderBatch batch = variableProcessor.newBatch(player, item);
+        LoreRenderContext context = new LoreRenderContext(item, meta, player.getName(), source, settings, batch,
+                reduce);
+        loreManager.applyLore(item, meta, loreManager.render(context), settings);
+
+        processed++;
+        if (reduce) {
+            reduced++;
+        }
+    }
+
+    /**
+     * 清除离开玩家背包的物品上的标记，玩家丢弃物品或放入容器时调用
+     * 属于队列中任务的物品不再处理，计为丢弃；标记清除后物品恢复和相同物品堆叠，再次获取时正常添加Lore
+     * @param item 物品
+     * @return 是否清除了标记
+     */
+    public boolean release(ItemStack item) {
+        if (item == null || item.getType().isAir()) return false;
+
+        Long ticket = item.getPersistentDataContainer().get(plugin.getItemDataKeys().getPendingRender(),
+                PersistentDataType.LONG);
+        if (ticket == null) return false;
+
+        for (PlayerJob job : jobs.values()) {
+            if (job.sources.containsKey(ticket)) {
+                job.stranded++;
+                dropped++;
+                break;
+            }
+        }
+        return loreManager.clearPendingRender(item);
+    }
+
+    /**
+     * 玩家背包中已没有该任务的物品，移出队列
+     * 堆叠合并的拾取计为合并，处理前离开背包的物品已在离开时清除标记并计为丢弃
+     */
+    private void finish(Iterator<PlayerJob> iterator, PlayerJob job) {
+        iterator.remove();
+        depth -= job.pickups;
+        int merged = job.pickups - job.rendered - job.stranded;
+        if (merged > 0) {
+            coalesced += merged;
+        }
+    }
+
+    /**
+     * 清除玩家的任务，玩家退出时调用
+     * 背包中还没有处理的物品会清除标记，恢复和相同物品堆叠，之后由其他途径正常处理
+     * @param player 玩家
+     */
+    public void invalidate(Player player) {
+        PlayerJob job = jobs.remove(player.getUniqueId());
+        if (job == null) return;
+
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (sourceOf(item, job) != null && loreManager.clearPendingRender(item)) {
+                inventory.setItem(slot, item);
+            }
+        }
+        depth -= job.pickups;
+        dropped += job.pickups;
+    }
+
+    /**
+     * 不受时间预算限制，同步处理队列中剩余的所有物品，插件关闭时调用
+     */
+    public void shutdown() {
+        LoreSettings settings = plugin.getSettings();
+        Iterator<PlayerJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            PlayerJob job = iterator.next();
+            Player player = Bukkit.getPlayer(job.playerId);
+            if (player == null || !player.isOnline()) {
+                dropped += job.pickups;
+                finish(iterator, job);
+                continue;
+            }
+
+            PlayerInventory inventory = player.getInventory();
+            ItemStack[] contents = inventory.getContents();
+            for (int slot = 0; slot < contents.length; slot++) {
+                ItemStack item = contents[slot];
+                String source = sourceOf(item, job);
+                if (source == null) continue;
+
+                process(item, player, source, settings);
+                inventory.setItem(slot, item);
+                job.rendered++;
+            }
+            finish(iterator, job);
+        }
+    }
+
+    /**
+     * 等待处理的拾取次数
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * 等待处理的玩家数量
+     */
+    public int getPlayerCount() {
+        return jobs.size();
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getReduced() {
+        return reduced;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * 单个玩家的待处理物品，每个来源一个标记
+     */
+    private static final class PlayerJob {
+        private final UUID playerId;
+        private final Map<String, Long> tickets = new HashMap<>();
+        private final Map<Long, String> sources = new HashMap<>();
+        private int pickups = 0;
+        private int rendered = 0;
+        // 处理前离开背包的物品格数
+        private int stranded = 0;
+
+        PlayerJob(UUID playerId) {
+            this.playerId = playerId;
+        }
+
+        long ticketFor(String source) {
+            Long ticket = tickets.get(source);
+            if (ticket == null) {
+                ticket = ThreadLocalRandom.current().nextLong();
+                tickets.put(source, ticket);
+                sources.put(ticket, source);
+            }
+            return ticket;
+        }
+    }
+}
@@ -0,0 +1,763 @@
+package org.Itemslore.itemslore.managers;
+
+import org.Itemslore.itemslore.utils.ColorManager;
+import org.Itemslore.itemslore.utils.CompiledTemplate;
+import org.Itemslore.itemslore.utils.CompiledText;
+import org.Itemslore.itemslore.utils.ItemTypeChecker;
+import org.Itemslore.itemslore.utils.KeywordMatcher;
+import org.Itemslore.itemslore.utils.MaterialPlan;
+import org.Itemslore.itemslore.utils.RandomLorePool;
+import org.Itemslore.itemslore.utils.RelativeTimeFormat;
+import org.Itemslore.itemslore.utils.TimeFormatCache;
+import org.Itemslore.itemslore.utils.VariableProcessor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * 配置快照
+ * 每次重载配置时一次性解析为不可变对象，运行期间的热路径代码只读取final字段，
+ * 不再逐项查询FileConfiguration。重载时整体替换引用，正在处理中的事件仍使用旧快照。
+ */
+public final class LoreSettings {
+
+    // 默认检测关键字
+    private static final List<String> DEFAULT_DETECTION_KEYWORDS = List.of(
+            "&8❖ &7耐久", "&7获取时间", "&7获取者", "&7来源");
+
+    private static final String DEFAULT_LINE_SEPARATOR = "&8&m⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤";
+    private static final String DEFAULT_TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final String DEFAULT_DOT_SEPARATOR = "&8&m· · · · · · · · · · · · · · · · · · · ·";
+
+    // 基础设置
+    private final boolean debug;
+    private final List<String> itemTypes;
+    private final Set<Material> processableMaterials;
+    private final Set<ItemSource> enabledSources;
+    private final boolean processDropsFromBrokenBlocks;
+
+    // 已有Lore处理
+    private final LoreManager.ExistingLoreMode existingLoreMode;
+    private final boolean existingLoreAddSeparator;
+    private final String existingLoreSeparator;
+    private final List<String> detectionKeywords;
+    private final KeywordMatcher detectionMatcher;
+
+    // Lore基础格式
+    private final String topSeparator;
+    private final String bottomSeparator;
+    private final String infoSeparator;
+    private final boolean showEmptyLines;
+    private final boolean showDurability;
+    private final boolean liveDurability;
+    private final String durabilityFormat;
+    private final boolean showTime;
+    private final String timeFormat;
+    private final TimeFormatCache timeFormatter;
+    private final RelativeTimeFormat relativeTimeFormat;
+    private final String timePrefix;
+    private final boolean showPlayer;
+    private final String playerPrefix;
+    private final boolean showSource;
+    private final String sourcePrefix;
+
+    // 预编译模板
+    private final Map<String, CompiledTemplate> templates;
+    private final CompiledTemplate legacyTemplate;
+
+    // 随机Lore
+    private final boolean randomLoreEnabled;
+    private final int randomAmountMin;
+    private final int randomAmountMax;
+    private final boolean fixedCountAsRandom;
+    private final boolean uniqueCountAsRandom;
+    private final double globalChance;
+    private final Map<String, Double> typeChances;
+    private final Map<String, RandomLorePool> randomPools;
+
+    // 自定义Lore
+    private final boolean customLoreEnabled;
+    private final List<String> customLoreLines;
+    private final List<VariableProcessor.Usage> customLoreUsages;
+
+    // 外部变量缓存，有效时间以tick计
+    private final boolean placeholderCacheEnabled;
+    private final int placeholderDefaultTtl;
+    private final Map<String, Integer> placeholderTtls;
+
+    // 后台渲染
+    private final boolean asyncRenderEnabled;
+    private final int asyncRenderThreads;
+
+    // 处理队列
+    private final boolean queueEnabled;
+    private final long queueBudgetNanos;
+    private final int queueMaxItemsPerTick;
+    private final int queueHighWaterMark;
+    private final int queueMaxSize;
+
+    // 按材质预先计算的处理方案
+    private final Map<Material, MaterialPlan> materialPlans;
+    // 是否有模板包含相对时间行，没有时不需要监听查看物品的事件
+    private final boolean relativeTimeUsed;
+    // 每个处理方案渲染时可能用到的变量，用于在主线程预先解析
+    private final Map<MaterialPlan, Map<String, VariableProcessor.Usage>> placeholderTokens;
+
+    private LoreSettings(FileConfiguration config, ColorManager colorManager, Logger logger) {
+        this.debug = config.getBoolean("debug", false);
+        this.itemTypes = List.copyOf(config.getStringList("item-types"));
+        this.processableMaterials = new ItemTypeChecker().resolveProcessableMaterials(itemTypes);
+        this.enabledSources = loadSources(config.getConfigurationSection("sources"),
+                config.getBoolean("add-lore-to-consumed-items", false));
+        this.processDropsFromBrokenBlocks = config.getBoolean("process-drops-from-broken-blocks", false);
+
+        this.existingLoreMode = parseExistingLoreMode(config.getString("existing-lore.mode", "APPEND"), logger);
+        this.existingLoreAddSeparator = config.getBoolean("existing-lore.add-separator", true);
+        this.existingLoreSeparator = config.getString("existing-lore.separator-style", DEFAULT_DOT_SEPARATOR);
+        List<String> keywords = config.getStringList("existing-lore.detection-keywords");
+        this.detectionKeywords = keywords.isEmpty() ? DEFAULT_DETECTION_KEYWORDS : List.copyOf(keywords);
+        List<String> coloredKeywords = new ArrayList<>(detectionKeywords.size());
+        for (String keyword : detectionKeywords) {
+            coloredKeywords.add(colorManager.colorize(keyword));
+        }
+        this.detectionMatcher = KeywordMatcher.compile(coloredKeywords);
+
+        this.topSeparator = config.getString("lore.basic-settings.top-separator", DEFAULT_LINE_SEPARATOR);
+        this.bottomSeparator = config.getString("lore.basic-settings.bottom-separator", DEFAULT_LINE_SEPARATOR);
+        this.infoSeparator = config.getString("lore.basic-settings.info-separator", DEFAULT_DOT_SEPARATOR);
+        this.showEmptyLines = config.getBoolean("lore.basic-settings.show-empty-lines", true);
+        this.showDurability = config.getBoolean("lore.show-durability", true);
+        this.liveDurability = config.getBoolean("lore.live-durability", false);
+        this.durabilityFormat = config.getString("lore.durability-format",
+                "&8❖ &7耐久: &c%ilore_current_low%&e%ilore_current_medium%&a%ilore_current_high%&8/&f%ilore_max%");
+        this.showTime = config.getBoolean("lore.show-time", true);
+        this.timeFormat = config.getString("lore.time-format", DEFAULT_TIME_FORMAT);
+        this.timeFormatter = compileTimeFormat(timeFormat, logger);
+        this.relativeTimeFormat = new RelativeTimeFormat(
+                colorManager.colorize(config.getString("lore.relative-time.just-now", "刚刚")),
+                colorManager.colorize(config.getString("lore.relative-time.minutes", "{n}分钟前")),
+                colorManager.colorize(config.getString("lore.relative-time.hours", "{n}小时前")),
+                colorManager.colorize(config.getString("lore.relative-time.days", "{n}天前")));
+        this.timePrefix = config.getString("lore.time-prefix", "&7获取时间：&f%ilore_time%");
+        this.showPlayer = config.getBoolean("lore.show-player", true);
+        this.playerPrefix = config.getString("lore.player-prefix", "&7获取人：&f%ilore_player%");
+        this.showSource = config.getBoolean("lore.show-source", true);
+        this.sourcePrefix = config.getString("lore.source-prefix", "&7来源：&f%ilore_source%");
+
+        this.randomLoreEnabled = config.getBoolean("lore.random-lore.enabled", false);
+        this.randomAmountMin = config.getInt("lore.random-lore.amount.min", 1);
+        this.randomAmountMax = config.getInt("lore.random-lore.amount.max", 3);
+        this.fixedCountAsRandom = config.getBoolean("lore.random-lore.fixed-count-as-random", false);
+        this.uniqueCountAsRandom = config.getBoolean("lore.random-lore.unique-count-as-random", true);
+        this.globalChance = config.getDouble("lore.random-lore.chances.global", 1.0);
+        this.typeChances = loadTypeChances(config.getConfigurationSection("lore.random-lore.chances.types"));
+        this.randomPools = loadRandomPools(config.getConfigurationSection("lore.random-lore.pools"), colorManager);
+
+        this.customLoreEnabled = config.getBoolean("lore.custom-lore.enabled", false);
+        this.customLoreLines = List.copyOf(config.getStringList("lore.custom-lore.lines"));
+        List<VariableProcessor.Usage> usages = new ArrayList<>(customLoreLines.size());
+        for (String line : customLoreLines) {
+            usages.add(VariableProcessor.analyze(line));
+        }
+        this.customLoreUsages = List.copyOf(usages);
+
+        this.placeholderCacheEnabled = config.getBoolean("placeholder-cache.enabled", true);
+        this.placeholderDefaultTtl = parseTicks(config.getString("placeholder-cache.default-ttl", "1t"), 1,
+                "placeholder-cache.default-ttl", logger);
+        this.placeholderTtls = loadPlaceholderTtls(config.getConfigurationSection("placeholder-cache.ttl"), logger);
+
+        this.asyncRenderEnabled = config.getBoolean("async-render.enabled", false);
+        this.asyncRenderThreads = Math.max(1, config.getInt("async-render.threads", 2));
+
+        this.queueEnabled = config.getBoolean("processing-queue.enabled", false);
+        this.queueBudgetNanos = Math.max(0L, config.getLong("processing-queue.budget-micros", 2000L)) * 1000L;
+        this.queueMaxItemsPerTick = Math.max(0, config.getInt("processing-queue.max-items-per-tick", 0));
+        this.queueHighWaterMark = Math.max(0, config.getInt("processing-queue.high-water-mark", 200));
+        this.queueMaxSize = Math.max(0, config.getInt("processing-queue.max-size", 2000));
+
+        // 模板依赖上面的格式配置，最后编译
+        this.templates = compileTemplates(config.getConfigurationSection("lore.templates"), colorManager);
+        this.legacyTemplate = CompiledTemplate.compileLegacy(this, colorManager);
+
+        this.materialPlans = buildMaterialPlans();
+        this.relativeTimeUsed = hasRelativeTimeLines();
+        this.placeholderTokens = collectPlaceholderTokens();
+    }
+
+    /**
+     * 从配置文件构建快照
+     * @param config 配置文件
+     * @param colorManager 用于预先着色的颜色管理器
+     * @param logger 用于输出配置错误的日志
+     * @return 配置快照
+     */
+    public static LoreSettings load(FileConfiguration config, ColorManager colorManager, Logger logger) {
+        return new LoreSettings(config, colorManager, logger);
+    }
+
+    /**
+     * 读取启用的获取途径，没有设置的途径使用默认值
+     * 旧配置的add-lore-to-consumed-items作为consume的默认值
+     */
+    private static Set<ItemSource> loadSources(ConfigurationSection section, boolean consumeByDefault) {
+        Set<ItemSource> result = EnumSet.noneOf(ItemSource.class);
+        for (ItemSource source : ItemSource.values()) {
+            boolean enabledByDefault = source == ItemSource.CONSUME ? consumeByDefault : source.isEnabledByDefault();
+            boolean enabled = section != null
+                    ? section.getBoolean(source.getKey(), enabledByDefault)
+                    : enabledByDefault;
+            if (enabled) {
+                result.add(source);
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * 解析已有Lore处理模式，无效值只在加载时警告一次
+     */
+    private static LoreManager.ExistingLoreMode parseExistingLoreMode(String value, Logger logger) {
+        String modeStr = value == null ? "APPEND" : value.toUpperCase();
+        try {
+            return LoreManager.ExistingLoreMode.valueOf(modeStr);
+        } catch (IllegalArgumentException e) {
+            logger.warning("无效的existing-lore.mode配置值: " + modeStr + "，使用默认值APPEND");
+            return LoreManager.ExistingLoreMode.APPEND;
+        }
+    }
+
+    /**
+     * 编译时间格式，无效格式只在加载时警告一次
+     */
+    private static TimeFormatCache compileTimeFormat(String pattern, Logger logger) {
+        try {
+            return TimeFormatCache.compile(pattern);
+        } catch (IllegalArgumentException e) {
+            logger.warning("无效的lore.time-format配置值: " + pattern + "，使用默认值" + DEFAULT_TIME_FORMAT);
+            return TimeFormatCache.compile(DEFAULT_TIME_FORMAT);
+        }
+    }
+
+    /**
+     * 编译所有模板，保持配置文件中的顺序
+     */
+    private Map<String, CompiledTemplate> compileTemplates(ConfigurationSection templatesSection, ColorManager colorManager) {
+        Map<String, CompiledTemplate> result = new LinkedHashMap<>();
+        if (templatesSection == null) {
+            return Collections.unmodifiableMap(result);
+        }
+
+        for (String templateName : templatesSection.getKeys(false)) {
+            ConfigurationSection templateSection = templatesSection.getConfigurationSection(templateName);
+            if (templateSection == null) continue;
+
+            result.put(templateName, CompiledTemplate.compile(
+                    templateName,
+                    templateSection.getBoolean("enabled", true),
+                    List.copyOf(templateSection.getStringList("item-types")),
+                    templateSection.getStringList("content"),
+                    this,
+                    colorManager));
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 为每种材质计算处理方案，内容相同的方案共享同一个实例
+     */
+    private Map<Material, MaterialPlan> buildMaterialPlans() {
+        ItemTypeChecker itemTypeChecker = new ItemTypeChecker();
+        Map<MaterialPlan, MaterialPlan> interned = new HashMap<>();
+        Map<Material, MaterialPlan> result = new EnumMap<>(Material.class);
+
+        for (Material material : Material.values()) {
+            CompiledTemplate template = resolveTemplate(material, itemTypeChecker);
+            MaterialPlan plan = new MaterialPlan(
+                    template,
+                    template == legacyTemplate,
+                    resolvePools(material, itemTypeChecker),
+                    resolveChance(material, itemTypeChecker));
+            result.put(material, interned.computeIfAbsent(plan, p -> p));
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 检查处理方案中是否有相对时间行
+     */
+    private boolean hasRelativeTimeLines() {
+        for (MaterialPlan plan : materialPlans.values()) {
+            for (CompiledTemplate.Line line : plan.getTemplate().getLines()) {
+                if (line.isLiveRelativeTime()) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 收集每个处理方案的模板和自定义Lore中的变量
+     */
+    private Map<MaterialPlan, Map<String, VariableProcessor.Usage>> collectPlaceholderTokens() {
+        Map<MaterialPlan, Map<String, VariableProcessor.Usage>> result = new HashMap<>();
+        for (MaterialPlan plan : materialPlans.values()) {
+            if (result.containsKey(plan)) continue;
+
+            Map<String, VariableProcessor.Usage> tokens = new LinkedHashMap<>();
+            for (CompiledTemplate.Line line : plan.getTemplate().getLines()) {
+                if (!line.needsVariables()) continue;
+                CompiledText text = line.getText();
+                for (int i = 0; i <= text.getTokenCount(); i++) {
+                    VariableProcessor.collectTokens(text.getLiteral(i), text.getVariableUsage(), tokens);
+                }
+            }
+            if (!plan.isLegacy() && customLoreEnabled) {
+                for (int i = 0; i < customLoreLines.size(); i++) {
+                    VariableProcessor.collectTokens(customLoreLines.get(i), customLoreUsages.get(i), tokens);
+                }
+            }
+            // 随机Lore条目只有抽中时才需要解析，由调用者抽取后单独收集
+            result.put(plan, Collections.unmodifiableMap(tokens));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 获取适合材质的模板名称，没有匹配的模板时返回default
+     */
+    private String resolveTemplateName(Material material, ItemTypeChecker itemTypeChecker) {
+        for (CompiledTemplate template : templates.values()) {
+            // 跳过默认模板和禁用的模板
+            if (template.getName().equals("default") || !template.isEnabled()) continue;
+
+            List<String> types = template.getItemTypes();
+
+            // 如果物品类型列表为空，表示适用于所有类型
+            if (types.isEmpty()) {
+                return template.getName();
+            }
+
+            for (String type : types) {
+                if (itemTypeChecker.matchesType(material, type)) {
+                    return template.getName();
+                }
+            }
+        }
+        return "default";
+    }
+
+    /**
+     * 获取材质使用的模板，依次回退到default模板和传统格式
+     */
+    private CompiledTemplate resolveTemplate(Material material, ItemTypeChecker itemTypeChecker) {
+        CompiledTemplate template = templates.get(resolveTemplateName(material, itemTypeChecker));
+        if (template == null) {
+            template = templates.get("default");
+        }
+        return template != null ? template : legacyTemplate;
+    }
+
+    /**
+     * 获取材质适用的随机Lore池，通用池总是排在最前
+     */
+    private List<RandomLorePool> resolvePools(Material material, ItemTypeChecker itemTypeChecker) {
+        List<RandomLorePool> result = new ArrayList<>();
+
+        RandomLorePool allPool = randomPools.get("ALL");
+        if (allPool != null) {
+            result.add(allPool);
+        }
+
+        for (RandomLorePool pool : randomPools.values()) {
+            if (pool.getName().equals("ALL")) continue; // 通用池已经处理过
+            if (itemTypeChecker.matchesType(material, pool.getName())) {
+                result.add(pool);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取材质的随机Lore生成概率
+     * 优先使用完整材质名称的配置，其次是第一个匹配的类别，最后是全局概率
+     */
+    private double resolveChance(Material material, ItemTypeChecker itemTypeChecker) {
+        double chance = globalChance;
+
+        Double exactChance = typeChances.get(material.name());
+        if (exactChance != null) {
+            chance = exactChance / 100.0;
+        } else {
+            for (Map.Entry<String, Double> chanceEntry : typeChances.entrySet()) {
+                if (itemTypeChecker.matchesType(material, chanceEntry.getKey())) {
+                    chance = chanceEntry.getValue() / 100.0;
+                    break;
+                }
+            }
+        }
+
+        // 确保概率在0-1之间
+        return Math.max(0.0, Math.min(1.0, chance));
+    }
+
+    /**
+     * 读取物品类型特定概率（原始0-100数值），保持配置文件中的顺序
+     */
+    private static Map<String, Double> loadTypeChances(ConfigurationSection chancesSection) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (chancesSection != null) {
+            for (String key : chancesSection.getKeys(false)) {
+                result.put(key, chancesSection.getDouble(key));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 解析所有随机Lore池，保持配置文件中的顺序
+     */
+    private static Map<String, RandomLorePool> loadRandomPools(ConfigurationSection poolsSection, ColorManager colorManager) {
+        Map<String, RandomLorePool> result = new LinkedHashMap<>();
+        if (poolsSection != null) {
+            for (String poolName : poolsSection.getKeys(false)) {
+                List<?> entries = poolsSection.getList(poolName);
+                if (entries != null) {
+                    result.put(poolName, RandomLorePool.compile(poolName, entries, colorManager));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 读取单独设置的变量缓存时间
+     */
+    private static Map<String, Integer> loadPlaceholderTtls(ConfigurationSection ttlSection, Logger logger) {
+        Map<String, Integer> result = new HashMap<>();
+        if (ttlSection != null) {
+            for (String token : ttlSection.getKeys(false)) {
+                result.put(token, parseTicks(ttlSection.getString(token), 0, "placeholder-cache.ttl." + token, logger));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 把时间配置转换为tick数
+     * 支持"5t"(tick)、"5s"(秒)、"500ms"(毫秒)和纯数字(tick)，毫秒向上取整到tick
+     * @param value 配置值
+     * @param defaultTicks 无效值时使用的默认值
+     * @param path 配置路径，用于输出警告
+     * @param logger 日志
+     * @return tick数
+     */
+    static int parseTicks(String value, int defaultTicks, String path, Logger logger) {
+        if (value == null || value.isEmpty()) {
+            return defaultTicks;
+        }
+
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (text.endsWith("ms")) {
+                long millis = Long.parseLong(text.substring(0, text.length() - 2).trim());
+                return (int) Math.max(0, (millis + 49) / 50);
+            }
+            if (text.endsWith("s")) {
+                return Math.max(0, Integer.parseInt(text.substring(0, text.length() - 1).trim()) * 20);
+            }
+            if (text.endsWith("t")) {
+                return Math.max(0, Integer.parseInt(text.substring(0, text.length() - 1).trim()));
+            }
+            return Math.max(0, Integer.parseInt(text));
+        } catch (NumberFormatException e) {
+            logger.warning("无效的" + path + "配置值: " + value + "，使用默认值" + defaultTicks + "t");
+            return defaultTicks;
+        }
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public List<String> getItemTypes() {
+        return itemTypes;
+    }
+
+    /**
+     * 检查材质是否在配置的物品类型范围内
+     * @param material 物品材质
+     * @return 是否需要处理
+     */
+    public boolean isProcessable(Material material) {
+        return processableMaterials.contains(material);
+    }
+
+    /**
+     * 获取途径是否启用
+     * @param source 获取途径
+     * @return 是否启用
+     */
+    public boolean isSourceEnabled(ItemSource source) {
+        return enabledSources.contains(source);
+    }
+
+    public boolean isProcessDropsFromBrokenBlocks() {
+        return processDropsFromBrokenBlocks;
+    }
+
+    public LoreManager.ExistingLoreMode getExistingLoreMode() {
+        return existingLoreMode;
+    }
+
+    public boolean isExistingLoreAddSeparator() {
+        return existingLoreAddSeparator;
+    }
+
+    public String getExistingLoreSeparator() {
+        return existingLoreSeparator;
+    }
+
+    public List<String> getDetectionKeywords() {
+        return detectionKeywords;
+    }
+
+    /**
+     * 获取由着色后的检测关键字编译的匹配器
+     * @return 关键字匹配器
+     */
+    public KeywordMatcher getDetectionMatcher() {
+        return detectionMatcher;
+    }
+
+    public String getTopSeparator() {
+        return topSeparator;
+    }
+
+    public String getBottomSeparator() {
+        return bottomSeparator;
+    }
+
+    public String getInfoSeparator() {
+        return infoSeparator;
+    }
+
+    public boolean isShowEmptyLines() {
+        return showEmptyLines;
+    }
+
+    public boolean isShowDurability() {
+        return showDurability;
+    }
+
+    public boolean isLiveDurability() {
+        return liveDurability;
+    }
+
+    public String getDurabilityFormat() {
+        return durabilityFormat;
+    }
+
+    public boolean isShowTime() {
+        return showTime;
+    }
+
+    public String getTimeFormat() {
+        return timeFormat;
+    }
+
+    /**
+     * 获取已编译的时间格式
+     */
+    public TimeFormatCache getTimeFormatter() {
+        return timeFormatter;
+    }
+
+    /**
+     * 获取相对时间格式
+     */
+    public RelativeTimeFormat getRelativeTimeFormat() {
+        return relativeTimeFormat;
+    }
+
+    /**
+     * 是否有模板使用相对时间行
+     */
+    public boolean isRelativeTimeUsed() {
+        return relativeTimeUsed;
+    }
+
+    public String getTimePrefix() {
+        return timePrefix;
+    }
+
+    public boolean isShowPlayer() {
+        return showPlayer;
+    }
+
+    public String getPlayerPrefix() {
+        return playerPrefix;
+    }
+
+    public boolean isShowSource() {
+        return showSource;
+    }
+
+    public String getSourcePrefix() {
+        return sourcePrefix;
+    }
+
+    /**
+     * 获取所有预编译模板，按配置文件顺序
+     * @return 模板名称到模板的映射
+     */
+    public Map<String, CompiledTemplate> getTemplates() {
+        return templates;
+    }
+    
+    /**
+     * 获取传统格式模板，在没有default模板时使用
+     * @return 传统格式模板
+     */
+    public CompiledTemplate getLegacyTemplate() {
+        return legacyTemplate;
+    }
+
+    public boolean isRandomLoreEnabled() {
+        return randomLoreEnabled;
+    }
+
+    public int getRandomAmountMin() {
+        return randomAmountMin;
+    }
+
+    public int getRandomAmountMax() {
+        return randomAmountMax;
+    }
+
+    public boolean isFixedCountAsRandom() {
+        return fixedCountAsRandom;
+    }
+
+    public boolean isUniqueCountAsRandom() {
+        return uniqueCountAsRandom;
+    }
+
+    public double getGlobalChance() {
+        return globalChance;
+    }
+
+    /**
+     * 获取物品类型特定概率
+     * @return 类型关键字到原始概率(0-100)的映射
+     */
+    public Map<String, Double> getTypeChances() {
+        return typeChances;
+    }
+
+    /**
+     * 获取预解析的随机Lore池
+     * @return 池名称到池的映射
+     */
+    public Map<String, RandomLorePool> getRandomPools() {
+        return randomPools;
+    }
+
+    /**
+     * 获取材质的处理方案
+     * @param material 物品材质
+     * @return 处理方案
+     */
+    public MaterialPlan getMaterialPlan(Material material) {
+        return materialPlans.get(material);
+    }
+
+    /**
+     * 获取处理方案的模板和自定义Lore中的变量，不包含随机Lore条目中的变量
+     * @param plan 处理方案
+     * @return 变量内容（去掉两侧%）到变量类型的映射
+     */
+    public Map<String, VariableProcessor.Usage> getPlaceholderTokens(MaterialPlan plan) {
+        return placeholderTokens.getOrDefault(plan, Collections.emptyMap());
+    }
+
+    public boolean isCustomLoreEnabled() {
+        return customLoreEnabled;
+    }
+
+    public List<String> getCustomLoreLines() {
+        return customLoreLines;
+    }
+
+    /**
+     * 获取每行自定义Lore的变量类型，与getCustomLoreLines一一对应
+     */
+    public List<VariableProcessor.Usage> getCustomLoreUsages() {
+        return customLoreUsages;
+    }
+
+    /**
+     * 获取外部变量的缓存时间
+     * @param token 变量内容（去掉两侧%）
+     * @return 缓存tick数，0表示不缓存
+     */
+    public int getPlaceholderTtl(String token) {
+        if (!placeholderCacheEnabled) {
+            return 0;
+        }
+        Integer ttl = placeholderTtls.get(token);
+        return ttl != null ? ttl : placeholderDefaultTtl;
+    }
+
+    public boolean isAsyncRenderEnabled() {
+        return asyncRenderEnabled;
+    }
+
+    public int getAsyncRenderThreads() {
+        return asyncRenderThreads;
+    }
+
+    public boolean isQueueEnabled() {
+        return queueEnabled;
+    }
+
+    /**
+     * 处理队列每tick的时间预算（纳秒），0表示不限制
+     */
+    public long getQueueBudgetNanos() {
+        return queueBudgetNanos;
+    }
+
+    /**
+     * 处理队列每tick最多处理的物品数量，0表示不限制
+     */
+    public int getQueueMaxItemsPerTick() {
+        return queueMaxItemsPerTick;
+    }
+
+    /**
+     * 队列中等待的物品超过此数量时简化渲染，0表示不简化
+     */
+    public int getQueueHighWaterMark() {
+        return queueHighWaterMark;
+    }
+
+    /**
+     * 队列中等待的物品达到此数量时新物品不再排队，直接简化处理，0表示不限制
+     */
+    public int getQueueMaxSize() {
+        return queueMaxSize;
+    }
+}
@@ -1,22 +1,35 @@
 package org.Itemslore.itemslore.managers;
 
 import org.Itemslore.itemslore.Itemslore;
+import org.Itemslore.itemslore.hooks.MultiWorldHook;
+import org.Itemslore.itemslore.hooks.MultiverseHook;
+import org.Itemslore.itemslore.hooks.VaultHook;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredServiceProvider;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * 插件依赖管理器，用于检测和管理其他插件的依赖
+ * 被依赖的插件启用或禁用时，对应的集成会重新绑定或停用
  */
 public class PluginManager {
     private final Itemslore plugin;
     private boolean placeholderAPIEnabled = false;
     private final Map<String, Plugin> supportedPlugins = new HashMap<>();
     
+    // 插件集成
+    private final VaultHook vaultHook;
+    private final MultiverseHook multiverseHook;
+    private final MultiWorldHook multiWorldHook;
+    
     public PluginManager(Itemslore plugin) {
         this.plugin = plugin;
+        this.vaultHook = new VaultHook(plugin);
+        this.multiverseHook = new MultiverseHook(plugin);
+        this.multiWorldHook = new MultiWorldHook(plugin);
     }
     
     /**
@@ -27,7 +40,7 @@ public class PluginManager {
         detectPlugin("PlaceholderAPI", true);
         
         // 检测Vault
-        detectPlugin("Vault", false);
+        detectPlugin(VaultHook.PLUGIN_NAME, false);
         
         // 检测MMOItems
         detectPlugin("MMOItems", false);
@@ -39,10 +52,10 @@ public class PluginManager {
         detectPlugin("MythicMobs", false);
         
         // 检测Multiverse-Core
-        detectPlugin("Multiverse-Core", false);
+        detectPlugin(MultiverseHook.PLUGIN_NAME, false);
         
         // 检测MultiWorld
-        detectPlugin("MultiWorld", false);
+        detectPlugin(MultiWorldHook.PLUGIN_NAME, false);
     }
     
     /**
@@ -53,13 +66,98 @@ public class PluginManager {
     private void detectPlugin(String pluginName, boolean isPlaceholderAPI) {
         Plugin detectedPlugin = Bukkit.getPluginManager().getPlugin(pluginName);
         if (detectedPlugin != null && detectedPlugin.isEnabled()) {
-            supportedPlugins.put(pluginName, detectedPlugin);
-            if (isPlaceholderAPI) {
-                placeholderAPIEnabled = true;
-                plugin.getLogger().info("已检测到PlaceholderAPI，已启用变量支持！");
-            } else {
-                plugin.getLogger().info("已检测到" + pluginName + "，已启用相关变量支持！");
-            }
+            registerPlugin(detectedPlugin, isPlaceholderAPI);
+        }
+    }
+    
+    /**
+     * 记录已启用的插件并绑定对应的集成
+     */
+    private void registerPlugin(Plugin detectedPlugin, boolean isPlaceholderAPI) {
+        String pluginName = detectedPlugin.getName();
+        supportedPlugins.put(pluginName, detectedPlugin);
+        
+        if (isPlaceholderAPI) {
+            placeholderAPIEnabled = true;
+            plugin.getLogger().info("已检测到PlaceholderAPI，已启用变量支持！");
+            return;
+        }
+        
+        switch (pluginName) {
+            case VaultHook.PLUGIN_NAME:
+                vaultHook.bind(detectedPlugin);
+                break;
+            case MultiverseHook.PLUGIN_NAME:
+                multiverseHook.bind(detectedPlugin);
+                break;
+            case MultiWorldHook.PLUGIN_NAME:
+                multiWorldHook.bind(detectedPlugin);
+                break;
+            default:
+                break;
+        }
+        plugin.getLogger().info("已检测到" + pluginName + "，已启用相关变量支持！");
+    }
+    
+    /**
+     * 处理插件启用，支持的插件在本插件之后启用时也能被识别
+     * @param enabledPlugin 启用的插件
+     */
+    public void handlePluginEnable(Plugin enabledPlugin) {
+        String pluginName = enabledPlugin.getName();
+        switch (pluginName) {
+            case "PlaceholderAPI":
+                registerPlugin(enabledPlugin, true);
+                break;
+            case VaultHook.PLUGIN_NAME:
+            case "MMOItems":
+            case "ItemsAdder":
+            case "MythicMobs":
+            case MultiverseHook.PLUGIN_NAME:
+            case MultiWorldHook.PLUGIN_NAME:
+                registerPlugin(enabledPlugin, false);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * 处理插件禁用，停用对应的集成
+     * @param disabledPlugin 禁用的插件
+     */
+    public void handlePluginDisable(Plugin disabledPlugin) {
+        String pluginName = disabledPlugin.getName();
+        if (supportedPlugins.remove(pluginName) == null) {
+            return;
+        }
+        
+        switch (pluginName) {
+            case "PlaceholderAPI":
+                placeholderAPIEnabled = false;
+                break;
+            case VaultHook.PLUGIN_NAME:
+                vaultHook.unbind();
+                break;
+            case MultiverseHook.PLUGIN_NAME:
+                multiverseHook.unbind();
+                break;
+            case MultiWorldHook.PLUGIN_NAME:
+                multiWorldHook.unbind();
+                break;
+            default:
+                break;
+        }
+        plugin.getLogger().info(pluginName + "已禁用，已停用相关变量支持");
+    }
+    
+    /**
+     * 处理服务注册/注销，经济服务变化时重新绑定Vault余额接口
+     * @param provider 注册或注销的服务
+     */
+    public void handleServiceChange(RegisteredServiceProvider<?> provider) {
+        if (provider.getService().getName().equals(VaultHook.ECONOMY_CLASS)) {
+            vaultHook.refreshEconomy();
         }
     }
     
@@ -88,4 +186,16 @@ public class PluginManager {
     public boolean isPluginEnabled(String pluginName) {
         return supportedPlugins.containsKey(pluginName);
     }
-} 
\ No newline at end of file
+    
+    public VaultHook getVaultHook() {
+        return vaultHook;
+    }
+    
+    public MultiverseHook getMultiverseHook() {
+        return multiverseHook;
+    }
+    
+    public MultiWorldHook getMultiWorldHook() {
+        return multiWorldHook;
+    }
+}
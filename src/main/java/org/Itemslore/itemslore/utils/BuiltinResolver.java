@@ -0,0 +1,22 @@
+package org.Itemslore.itemslore.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * 内置变量解析器
+ * 与PlaceholderResolver相同，渲染Lore时额外传入渲染上下文，物品数据直接从上下文读取
+ */
+@FunctionalInterface
+public interface BuiltinResolver {
+
+    /**
+     * 解析变量
+     * @param params 第一个下划线之后的参数部分
+     * @param player 玩家对象，可能为null
+     * @param item 物品对象，可能为null
+     * @param context 渲染上下文，不在渲染Lore时为null
+     * @return 解析结果，无法解析时返回null（保留原始变量）
+     */
+    String resolve(String params, Player player, ItemStack item, LoreRenderContext context);
+}
@@ -0,0 +1,255 @@
+package org.Itemslore.itemslore.utils;
+
+import org.Itemslore.itemslore.managers.LoreSettings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编译的Lore模板
+ * 模板中的%ilore_xxx%占位符在重载时展开：分隔线直接替换为文本，
+ * 耐久度/时间/玩家/来源替换为对应格式中的字面量和值占位符，
+ * 被配置关闭的行在编译时就被移除
+ */
+public final class CompiledTemplate {
+
+    private final String name;
+    private final boolean enabled;
+    private final List<String> itemTypes;
+    private final List<Line> lines;
+
+    private CompiledTemplate(String name, boolean enabled, List<String> itemTypes, List<Line> lines) {
+        this.name = name;
+        this.enabled = enabled;
+        this.itemTypes = itemTypes;
+        this.lines = lines;
+    }
+
+    /**
+     * 编译模板
+     * @param name 模板名称
+     * @param enabled 是否启用
+     * @param itemTypes 适用的物品类型
+     * @param content 模板内容
+     * @param settings 配置快照（读取分隔线和各类前缀格式）
+     * @param colorManager 颜色管理器
+     * @return 预编译模板
+     */
+    public static CompiledTemplate compile(String name, boolean enabled, List<String> itemTypes, List<String> content,
+                                           LoreSettings settings, ColorManager colorManager) {
+        Map<String, CompiledText.Handler> valueHandlers = createValueHandlers();
+        Map<String, CompiledText.Handler> durabilityHandlers = createDurabilityHandlers();
+
+        Map<String, CompiledText.Handler> lineHandlers = new HashMap<>();
+        lineHandlers.put("%ilore_top_separator%", b -> b.literal(settings.getTopSeparator()));
+        lineHandlers.put("%ilore_bottom_separator%", b -> b.literal(settings.getBottomSeparator()));
+        lineHandlers.put("%ilore_info_separator%", b -> b.literal(settings.getInfoSeparator()));
+        lineHandlers.put("%ilore_durability%", b -> b.parse(settings.getDurabilityFormat(), durabilityHandlers));
+        lineHandlers.put("%ilore_time%", b -> b.parse(settings.getTimePrefix(), valueHandlers));
+        lineHandlers.put("%ilore_player%", b -> b.parse(settings.getPlayerPrefix(), valueHandlers));
+        lineHandlers.put("%ilore_source%", b -> b.parse(settings.getSourcePrefix(), valueHandlers));
+        lineHandlers.put("%ilore_random_lore%", b -> b.token(CompiledText.Token.RANDOM_LORE));
+        lineHandlers.put("%ilore_relative_time%", b -> b.token(CompiledText.Token.RELATIVE_TIME));
+
+        List<Line> lines = new ArrayList<>(content.size());
+        for (String raw : content) {
+            // 被配置关闭的行直接移除
+            if (raw.contains("%ilore_time%") && !settings.isShowTime()) continue;
+            if (raw.contains("%ilore_player%") && !settings.isShowPlayer()) continue;
+            if (raw.contains("%ilore_source%") && !settings.isShowSource()) continue;
+            if (raw.contains("%ilore_random_lore%") && !settings.isRandomLoreEnabled()) continue;
+
+            CompiledText text = new CompiledText.Builder().parse(raw, lineHandlers).build(colorManager);
+            lines.add(new Line(text, raw.contains("%ilore_durability%"), false, text.getVariableUsage()));
+        }
+
+        return new CompiledTemplate(name, enabled, itemTypes, Collections.unmodifiableList(lines));
+    }
+
+    /**
+     * 编译传统格式
+     * 用于没有配置default模板的旧版本配置，行为与旧的固定格式一致（不处理变量和自定义Lore）
+     * @param settings 配置快照
+     * @param colorManager 颜色管理器
+     * @return 预编译模板
+     */
+    public static CompiledTemplate compileLegacy(LoreSettings settings, ColorManager colorManager) {
+        Map<String, CompiledText.Handler> valueHandlers = createValueHandlers();
+        Map<String, CompiledText.Handler> durabilityHandlers = createDurabilityHandlers();
+
+        List<Line> lines = new ArrayList<>();
+        lines.add(constantLine(settings.getTopSeparator(), colorManager));
+        lines.add(constantLine("", colorManager));
+
+        if (settings.isShowDurability()) {
+            CompiledText durability = new CompiledText.Builder()
+                    .parse(settings.getDurabilityFormat(), durabilityHandlers).build(colorManager);
+            lines.add(new Line(durability, true, false, VariableProcessor.Usage.NONE));
+            lines.add(new Line(new CompiledText.Builder().build(colorManager), true, false,
+                    VariableProcessor.Usage.NONE));
+        }
+
+        // 随机Lore前的空行只在有随机Lore时添加
+        lines.add(new Line(new CompiledText.Builder().build(colorManager), false, true,
+                VariableProcessor.Usage.NONE));
+        lines.add(new Line(new CompiledText.Builder().token(CompiledText.Token.RANDOM_LORE).build(colorManager),
+                false, false, VariableProcessor.Usage.NONE));
+
+        lines.add(constantLine("", colorManager));
+        lines.add(constantLine(settings.getInfoSeparator(), colorManager));
+        lines.add(constantLine("", colorManager));
+
+        if (settings.isShowTime()) {
+            lines.add(new Line(new CompiledText.Builder().parse(settings.getTimePrefix(), valueHandlers)
+                    .build(colorManager), false, false, VariableProcessor.Usage.NONE));
+        }
+        if (settings.isShowPlayer()) {
+            lines.add(new Line(new CompiledText.Builder().parse(settings.getPlayerPrefix(), valueHandlers)
+                    .build(colorManager), false, false, VariableProcessor.Usage.NONE));
+        }
+        if (settings.isShowSource()) {
+            lines.add(new Line(new CompiledText.Builder().parse(settings.getSourcePrefix(), valueHandlers)
+                    .build(colorManager), false, false, VariableProcessor.Usage.NONE));
+        }
+
+        lines.add(constantLine("", colorManager));
+        lines.add(constantLine(settings.getBottomSeparator(), colorManager));
+
+        return new CompiledTemplate("legacy", true, Collections.emptyList(), Collections.unmodifiableList(lines));
+    }
+
+    private static Line constantLine(String raw, ColorManager colorManager) {
+        return new Line(new CompiledText.Builder().literal(raw).build(colorManager), false, false,
+                VariableProcessor.Usage.NONE);
+    }
+
+    /**
+     * 前缀格式中的值占位符
+     */
+    private static Map<String, CompiledText.Handler> createValueHandlers() {
+        Map<String, CompiledText.Handler> handlers = new HashMap<>();
+        handlers.put("%ilore_time%", b -> b.token(CompiledText.Token.TIME));
+        handlers.put("%ilore_player%", b -> b.token(CompiledText.Token.PLAYER));
+        handlers.put("%ilore_source%", b -> b.token(CompiledText.Token.SOURCE));
+        return handlers;
+    }
+
+    /**
+     * 耐久度格式中的值占位符
+     */
+    private static Map<String, CompiledText.Handler> createDurabilityHandlers() {
+        Map<String, CompiledText.Handler> handlers = new HashMap<>();
+        handlers.put("%ilore_current_low%", b -> b.token(CompiledText.Token.DURABILITY_LOW));
+        handlers.put("%ilore_current_medium%", b -> b.token(CompiledText.Token.DURABILITY_MEDIUM));
+        handlers.put("%ilore_current_high%", b -> b.token(CompiledText.Token.DURABILITY_HIGH));
+        handlers.put("%ilore_max%", b -> b.token(CompiledText.Token.DURABILITY_MAX));
+        return handlers;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<String> getItemTypes() {
+        return itemTypes;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * 模板中的一行
+     */
+    public static final class Line {
+        private static final Set<CompiledText.Token> DURABILITY_TOKENS = EnumSet.of(
+                CompiledText.Token.DURABILITY_LOW, CompiledText.Token.DURABILITY_MEDIUM,
+                CompiledText.Token.DURABILITY_HIGH, CompiledText.Token.DURABILITY_MAX);
+
+        private final CompiledText text;
+        private final boolean requiresDurability;
+        private final boolean requiresRandomLore;
+        private final VariableProcessor.Usage variableUsage;
+        private final boolean liveDurability;
+        private final boolean liveRelativeTime;
+
+        Line(CompiledText text, boolean requiresDurability, boolean requiresRandomLore,
+             VariableProcessor.Usage variableUsage) {
+            this.text = text;
+            this.requiresDurability = requiresDurability;
+            this.requiresRandomLore = requiresRandomLore;
+            this.variableUsage = variableUsage;
+            boolean noVariables = variableUsage == VariableProcessor.Usage.NONE;
+            this.liveDurability = noVariables && containsOnly(text, DURABILITY_TOKENS);
+            this.liveRelativeTime = noVariables && containsOnly(text, EnumSet.of(CompiledText.Token.RELATIVE_TIME));
+        }
+
+        /**
+         * 检查文本是否包含占位符且只包含指定的占位符
+         */
+        private static boolean containsOnly(CompiledText text, Set<CompiledText.Token> allowed) {
+            int tokenCount = text.getTokenCount();
+            for (int i = 0; i < tokenCount; i++) {
+                if (!allowed.contains(text.getToken(i))) {
+                    return false;
+                }
+            }
+            return tokenCount > 0;
+        }
+
+        public CompiledText getText() {
+            return text;
+        }
+
+        /**
+         * 该行只在物品有耐久度时显示
+         */
+        public boolean requiresDurability() {
+            return requiresDurability;
+        }
+
+        /**
+         * 该行是否为耐久度行，且只依赖物品当前的耐久度，可以在耐久度变化后单独重新渲染
+         */
+        public boolean isLiveDurability() {
+            return liveDurability;
+        }
+
+        /**
+         * 该行是否为相对时间行，且只依赖获取时间，可以在查看物品时单独重新渲染
+         */
+        public boolean isLiveRelativeTime() {
+            return liveRelativeTime;
+        }
+
+        /**
+         * 该行只在有随机Lore时显示
+         */
+        public boolean requiresRandomLore() {
+            return requiresRandomLore;
+        }
+
+        /**
+         * 渲染后是否需要处理变量
+         */
+        public boolean needsVariables() {
+            return variableUsage != VariableProcessor.Usage.NONE;
+        }
+
+        /**
+         * 渲染后是否需要调用PlaceholderAPI和其他插件处理变量，为false时只需处理内置变量
+         */
+        public boolean needsExternalVariables() {
+            return variableUsage == VariableProcessor.Usage.EXTERNAL;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.Itemslore.itemslore.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译文本
+ * 重载配置时把文本拆分为已着色的字面量片段和类型化的占位符标记，
+ * 渲染时按顺序拼接即可，不再对每一行反复执行contains/replace和着色
+ */
+public final class CompiledText {
+
+    /**
+     * 渲染时才能确定的值
+     */
+    public enum Token {
+        DURABILITY_LOW,     // 低耐久段（<=20%时显示当前耐久）
+        DURABILITY_MEDIUM,  // 中耐久段（<=50%时显示当前耐久）
+        DURABILITY_HIGH,    // 高耐久段（>50%时显示当前耐久）
+        DURABILITY_MAX,     // 最大耐久
+        TIME,               // 获取时间
+        PLAYER,             // 玩家名称
+        SOURCE,             // 来源
+        RELATIVE_TIME,      // 获取后经过的时间
+        RANDOM_LORE         // 随机Lore
+    }
+
+    private static final Token[] NO_TOKENS = new Token[0];
+
+    // literals.length == tokens.length + 1，渲染顺序为 literal[0] token[0] literal[1] ... literal[n]
+    private final String[] literals;
+    private final Token[] tokens;
+    private final VariableProcessor.Usage variableUsage;
+
+    private CompiledText(String[] literals, Token[] tokens) {
+        this.literals = literals;
+        this.tokens = tokens;
+
+        VariableProcessor.Usage usage = VariableProcessor.Usage.NONE;
+        for (String literal : literals) {
+            usage = usage.merge(VariableProcessor.analyze(literal));
+        }
+        this.variableUsage = usage;
+    }
+
+    /**
+     * 获取占位符数量
+     * @return 占位符数量
+     */
+    public int getTokenCount() {
+        return tokens.length;
+    }
+
+    /**
+     * 获取第index个字面量片段（已着色）
+     * @param index 片段序号，范围0到占位符数量
+     * @return 字面量片段
+     */
+    public String getLiteral(int index) {
+        return literals[index];
+    }
+
+    /**
+     * 获取第index个占位符
+     * @param index 占位符序号
+     * @return 占位符
+     */
+    public Token getToken(int index) {
+        return tokens[index];
+    }
+
+    /**
+     * 检查是否包含指定占位符
+     * @param token 占位符
+     * @return 是否包含
+     */
+    public boolean contains(Token token) {
+        for (Token t : tokens) {
+            if (t == token) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 字面量中是否还有其他%变量%，需要渲染后交给VariableProcessor处理
+     * @return 是否包含变量
+     */
+    public boolean hasVariables() {
+        return variableUsage != VariableProcessor.Usage.NONE;
+    }
+
+    /**
+     * 字面量中变量的类型，决定渲染时是否需要调用PlaceholderAPI和其他插件
+     * @return 变量类型
+     */
+    public VariableProcessor.Usage getVariableUsage() {
+        return variableUsage;
+    }
+
+    /**
+     * 文本构建器
+     * 先收集原始文本和占位符，build时合并相邻字面量并统一着色
+     */
+    public static final class Builder {
+        private final List<String> literals = new ArrayList<>();
+        private final List<Token> tokens = new ArrayList<>();
+        private final StringBuilder pending = new StringBuilder();
+
+        /**
+         * 追加原始文本（未着色）
+         */
+        public Builder literal(String text) {
+            if (text != null) {
+                pending.append(text);
+            }
+            return this;
+        }
+
+        /**
+         * 追加占位符
+         */
+        public Builder token(Token token) {
+            literals.add(pending.toString());
+            pending.setLength(0);
+            tokens.add(token);
+            return this;
+        }
+
+        /**
+         * 解析原始文本，遇到handlers中的占位符时交给对应的处理器，其余部分作为字面量追加
+         * @param raw 原始文本
+         * @param handlers 占位符到处理器的映射
+         * @return 构建器本身
+         */
+        public Builder parse(String raw, Map<String, Handler> handlers) {
+            if (raw == null || raw.isEmpty()) {
+                return this;
+            }
+
+            int literalStart = 0;
+            int index = raw.indexOf('%');
+            while (index >= 0) {
+                String matched = null;
+                for (String placeholder : handlers.keySet()) {
+                    if (raw.startsWith(placeholder, index)) {
+                        matched = placeholder;
+                        break;
+                    }
+                }
+
+                if (matched == null) {
+                    index = raw.indexOf('%', index + 1);
+                    continue;
+                }
+
+                pending.append(raw, literalStart, index);
+                handlers.get(matched).apply(this);
+                literalStart = index + matched.length();
+                index = raw.indexOf('%', literalStart);
+            }
+
+            pending.append(raw, literalStart, raw.length());
+            return this;
+        }
+
+        /**
+         * 构建预编译文本
+         * @param colorManager 用于预先着色字面量
+         * @return 预编译文本
+         */
+        public CompiledText build(ColorManager colorManager) {
+            String[] literalArray = new String[literals.size() + 1];
+            for (int i = 0; i < literals.size(); i++) {
+                literalArray[i] = colorManager.colorize(literals.get(i));
+            }
+            literalArray[literals.size()] = colorManager.colorize(pending.toString());
+
+            Token[] tokenArray = tokens.isEmpty() ? NO_TOKENS : tokens.toArray(new Token[0]);
+            return new CompiledText(literalArray, tokenArray);
+        }
+    }
+
+    /**
+     * 占位符处理器，决定占位符在构建器中展开为什么内容
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void apply(Builder builder);
+    }
+}
@@ -0,0 +1,92 @@
+package org.Itemslore.itemslore.utils;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.bukkit.NamespacedKey;
+
+/**
+ * 物品持久化数据键
+ * 插件写入物品PersistentDataContainer的所有键集中在这里定义
+ */
+public final class ItemDataKeys {
+
+    /**
+     * 已处理标记的格式版本，标记格式变化时递增
+     */
+    public static final int PROCESSED_FORMAT_VERSION = 1;
+
+    private final NamespacedKey processed;
+    private final NamespacedKey durabilityLine;
+    private final NamespacedKey acquired;
+    private final NamespacedKey relativeTimeLine;
+    private final NamespacedKey relativeTimeBucket;
+    private final NamespacedKey pendingRender;
+    private final NamespacedKey dropSource;
+    private final NamespacedKey dropOwner;
+
+    public ItemDataKeys(Itemslore plugin) {
+        this.processed = new NamespacedKey(plugin, "processed");
+        this.durabilityLine = new NamespacedKey(plugin, "durability_line");
+        this.acquired = new NamespacedKey(plugin, "acquired");
+        this.relativeTimeLine = new NamespacedKey(plugin, "relative_time_line");
+        this.relativeTimeBucket = new NamespacedKey(plugin, "relative_time_bucket");
+        this.pendingRender = new NamespacedKey(plugin, "pending_render");
+        this.dropSource = new NamespacedKey(plugin, "drop_source");
+        this.dropOwner = new NamespacedKey(plugin, "drop_owner");
+    }
+
+    /**
+     * 已处理标记，值为格式版本(INTEGER)
+     */
+    public NamespacedKey getProcessed() {
+        return processed;
+    }
+
+    /**
+     * 耐久度行在Lore中的位置(INTEGER)，用于实时更新耐久度
+     */
+    public NamespacedKey getDurabilityLine() {
+        return durabilityLine;
+    }
+
+    /**
+     * 获取时间(LONG，毫秒时间戳)，只在模板包含相对时间行时写入
+     */
+    public NamespacedKey getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * 相对时间行在Lore中的位置(INTEGER)
+     */
+    public NamespacedKey getRelativeTimeLine() {
+        return relativeTimeLine;
+    }
+
+    /**
+     * 相对时间行当前显示的分段(LONG)，分段不变时不需要重新渲染
+     */
+    public NamespacedKey getRelativeTimeBucket() {
+        return relativeTimeBucket;
+    }
+
+    /**
+     * 后台渲染的凭据(LONG)，渲染完成后用于找回物品，写入Lore时移除
+     */
+    public NamespacedKey getPendingRender() {
+        return pendingRender;
+    }
+
+    /**
+     * 掉落物的来源(STRING)，拾取时从掉落物实体读取；生物死亡时先写入物品，生成掉落物实体时移到实体上
+     */
+    public NamespacedKey getDropSource() {
+        return dropSource;
+    }
+
+    /**
+     * 掉落物所属玩家的UUID(STRING)，方块掉落时把破坏者写入掉落物实体，其他玩家拾取时不使用掉落来源
+     */
+    public NamespacedKey getDropOwner() {
+        return dropOwner;
+    }
+}
@@ -2,34 +2,62 @@ package org.Itemslore.itemslore.utils;
 
 import org.bukkit.Material;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * 物品类型检查器
- * 用于识别和分类不同类型的物品
+ * 用于识别和分类不同类型的物品，分类结果在类加载时按材质一次性计算
  */
 public class ItemTypeChecker {
     
+    private static final Set<Material> TOOLS = EnumSet.noneOf(Material.class);
+    private static final Set<Material> ARMORS = EnumSet.noneOf(Material.class);
+    private static final Set<Material> WEAPONS = EnumSet.noneOf(Material.class);
+    
+    // 旧版材质的名称前缀，Material.isLegacy()已弃用
+    private static final String LEGACY_PREFIX = "LEGACY_";
+    
+    static {
+        for (Material material : Material.values()) {
+            String name = material.name();
+            if (name.startsWith(LEGACY_PREFIX)) continue; // 旧版材质不会出现在物品上
+            
+            if (name.endsWith("_PICKAXE") || name.endsWith("_AXE") || 
+                name.endsWith("_SHOVEL") || name.endsWith("_HOE") || 
+                name.endsWith("_SHEARS") || name.equals("FLINT_AND_STEEL")) {
+                TOOLS.add(material);
+            }
+            if (name.endsWith("_HELMET") || name.endsWith("_CHESTPLATE") || 
+                name.endsWith("_LEGGINGS") || name.endsWith("_BOOTS") || 
+                name.equals("SHIELD") || name.equals("ELYTRA")) {
+                ARMORS.add(material);
+            }
+            if (name.endsWith("_SWORD") || name.equals("BOW") || 
+                name.equals("CROSSBOW") || name.equals("TRIDENT")) {
+                WEAPONS.add(material);
+            }
+        }
+    }
+    
     /**
      * 检查物品是否为工具类
      * @param material 物品材质
      * @return 是否为工具类
      */
     public boolean isToolItem(Material material) {
-        String name = material.toString();
-        return name.endsWith("_PICKAXE") || name.endsWith("_AXE") || 
-               name.endsWith("_SHOVEL") || name.endsWith("_HOE") || 
-               name.endsWith("_SHEARS") || name.equals("FLINT_AND_STEEL");
+        return TOOLS.contains(material);
     }
     
     /**
      * 检查物品是否为盔甲类
      * @param material 物品材质
-     * @return
+     * @return 是否为盔甲类
      */
     public boolean isArmorItem(Material material) {
-        String name = material.toString();
-        return name.endsWith("_HELMET") || name.endsWith("_CHESTPLATE") || 
-               name.endsWith("_LEGGINGS") || name.endsWith("_BOOTS") || 
-               name.equals("SHIELD") || name.equals("ELYTRA");
+        return ARMORS.contains(material);
     }
     
     /**
@@ -38,9 +66,21 @@ public class ItemTypeChecker {
      * @return 是否为武器类
      */
     public boolean isWeaponItem(Material material) {
-        String name = material.toString();
-        return name.endsWith("_SWORD") || name.equals("BOW") || 
-               name.equals("CROSSBOW") || name.equals("TRIDENT");
+        return WEAPONS.contains(material);
+    }
+    
+    /**
+     * 检查材质是否匹配配置中的一个类型关键字
+     * 关键字可以是材质名称的一部分，也可以是WEAPON/TOOL/ARMOR类别
+     * @param material 物品材质
+     * @param type 类型关键字
+     * @return 是否匹配
+     */
+    public boolean matchesType(Material material, String type) {
+        return material.name().contains(type) || 
+               (type.equals("WEAPON") && isWeaponItem(material)) ||
+               (type.equals("TOOL") && isToolItem(material)) ||
+               (type.equals("ARMOR") && isArmorItem(material));
     }
     
     /**
@@ -49,7 +89,7 @@ public class ItemTypeChecker {
      * @param itemTypes 配置的物品类型列表
      * @return 是否应该处理
      */
-    public boolean shouldProcessItemType(Material material, java.util.List<String> itemTypes) {
+    public boolean shouldProcessItemType(Material material, List<String> itemTypes) {
         // 如果包含ALL，则处理所有物品
         if (itemTypes.contains("ALL")) return true;
         
@@ -68,4 +108,21 @@ public class ItemTypeChecker {
         
         return false;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 按配置的物品类型列表计算所有需要处理的材质
+     * 在重载配置时调用一次，之后判断物品是否需要处理只需查表
+     * @param itemTypes 配置的物品类型列表
+     * @return 需要处理的材质集合
+     */
+    public Set<Material> resolveProcessableMaterials(List<String> itemTypes) {
+        Set<Material> result = EnumSet.noneOf(Material.class);
+        for (Material material : Material.values()) {
+            if (material.name().startsWith(LEGACY_PREFIX)) continue;
+            if (shouldProcessItemType(material, itemTypes)) {
+                result.add(material);
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
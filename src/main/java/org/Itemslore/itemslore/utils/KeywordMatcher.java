@@ -0,0 +1,152 @@
+package org.Itemslore.itemslore.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 多关键字匹配器（Aho-Corasick自动机）
+ * 重载配置时把所有关键字编译为一个自动机，匹配时对每行文本只做一次线性扫描，
+ * 匹配过程中不分配任何对象
+ */
+public final class KeywordMatcher {
+
+    private static final int ROOT = 0;
+
+    // 每个节点的出边按字符排序，children[i][j]为keys[i][j]对应的子节点
+    private final char[][] keys;
+    private final int[][] children;
+    private final int[] fail;
+    private final boolean[] output;
+    // 空关键字匹配任何文本
+    private final boolean matchesEmpty;
+
+    private KeywordMatcher(char[][] keys, int[][] children, int[] fail, boolean[] output, boolean matchesEmpty) {
+        this.keys = keys;
+        this.children = children;
+        this.fail = fail;
+        this.output = output;
+        this.matchesEmpty = matchesEmpty;
+    }
+
+    /**
+     * 编译关键字
+     * @param keywords 关键字列表（应已着色）
+     * @return 匹配器
+     */
+    public static KeywordMatcher compile(List<String> keywords) {
+        // 先用有序映射构建字典树
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminal.add(false);
+        boolean matchesEmpty = false;
+
+        for (String keyword : keywords) {
+            if (keyword.isEmpty()) {
+                matchesEmpty = true;
+                continue;
+            }
+
+            int node = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                Integer next = trie.get(node).get(keyword.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    terminal.add(false);
+                    trie.get(node).put(keyword.charAt(i), next);
+                }
+                node = next;
+            }
+            terminal.set(node, true);
+        }
+
+        // 转换为数组形式
+        int size = trie.size();
+        char[][] keys = new char[size][];
+        int[][] children = new int[size][];
+        boolean[] output = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            TreeMap<Character, Integer> edges = trie.get(i);
+            keys[i] = new char[edges.size()];
+            children[i] = new int[edges.size()];
+            int j = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                keys[i][j] = edge.getKey();
+                children[i][j] = edge.getValue();
+                j++;
+            }
+            output[i] = terminal.get(i);
+        }
+
+        // 按广度优先顺序计算失配指针，并沿失配指针合并输出标记
+        int[] fail = new int[size];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : children[ROOT]) {
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int j = 0; j < keys[node].length; j++) {
+                int child = children[node][j];
+                int target = transition(keys, children, fail, fail[node], keys[node][j]);
+                fail[child] = target;
+                output[child] |= output[target];
+                queue.add(child);
+            }
+        }
+
+        return new KeywordMatcher(keys, children, fail, output, matchesEmpty);
+    }
+
+    private static int transition(char[][] keys, int[][] children, int[] fail, int node, char c) {
+        while (true) {
+            int index = Arrays.binarySearch(keys[node], c);
+            if (index >= 0) {
+                return children[node][index];
+            }
+            if (node == ROOT) {
+                return ROOT;
+            }
+            node = fail[node];
+        }
+    }
+
+    /**
+     * 检查文本是否包含任一关键字
+     * @param text 文本
+     * @return 是否包含
+     */
+    public boolean matches(String text) {
+        if (matchesEmpty) return true;
+
+        int node = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            node = transition(keys, children, fail, node, text.charAt(i));
+            if (output[node]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 检查任一行是否包含任一关键字
+     * @param lines 文本行
+     * @return 是否包含
+     */
+    public boolean matchesAny(List<String> lines) {
+        for (String line : lines) {
+            if (line != null && matches(line)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
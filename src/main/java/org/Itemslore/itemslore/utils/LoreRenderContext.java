@@ -0,0 +1,129 @@
+package org.Itemslore.itemslore.utils;
+
+import org.Itemslore.itemslore.managers.LoreSettings;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+
+/**
+ * Lore渲染上下文
+ * 在主线程读取渲染所需的物品和玩家数据，之后的渲染只使用这份快照，
+ * 因此可以在后台线程进行（变量需要预先在批次中解析并封存）。
+ * 每个物品只复制一次ItemMeta，模板、随机Lore和变量都从这里读取物品数据
+ */
+public final class LoreRenderContext {
+    private final ItemMeta meta;
+    private final Material material;
+    private final boolean damageable;
+    private final int maxDurability;
+    private final int currentDurability;
+    private final String displayName;
+    private final String playerName;
+    private final String source;
+    private final LoreSettings settings;
+    private final PlaceholderBatch batch;
+    private final boolean reduced;
+
+    public LoreRenderContext(ItemStack item, ItemMeta meta, String playerName, String source, LoreSettings settings,
+                             PlaceholderBatch batch) {
+        this(item, meta, playerName, source, settings, batch, false);
+    }
+
+    /**
+     * @param item 物品
+     * @param meta 物品的ItemMeta
+     * @param playerName 玩家名称，不渲染玩家名称时可以为null
+     * @param source 来源，不渲染来源时可以为null
+     * @param settings 配置快照
+     * @param batch 变量批次，不处理变量时可以为null
+     * @param reduced 是否简化渲染，简化时不生成随机Lore，也不解析外部变量
+     */
+    public LoreRenderContext(ItemStack item, ItemMeta meta, String playerName, String source, LoreSettings settings,
+                             PlaceholderBatch batch, boolean reduced) {
+        this.meta = meta;
+        this.material = item.getType();
+        this.damageable = meta instanceof Damageable;
+        this.maxDurability = damageable ? material.getMaxDurability() : 0;
+        this.currentDurability = damageable ? maxDurability - ((Damageable) meta).getDamage() : 0;
+        this.displayName = meta != null && meta.hasDisplayName() ? meta.getDisplayName() : null;
+        this.playerName = playerName;
+        this.source = source;
+        this.settings = settings;
+        this.batch = batch;
+        this.reduced = reduced;
+        if (batch != null) {
+            batch.bind(this);
+        }
+    }
+
+    /**
+     * 物品的ItemMeta，渲染完成后由LoreManager写回物品
+     */
+    public ItemMeta getMeta() {
+        return meta;
+    }
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * 物品是否有耐久度
+     */
+    public boolean isDamageable() {
+        return damageable;
+    }
+
+    /**
+     * 物品的最大耐久度
+     */
+    public int getMaxDurability() {
+        return maxDurability;
+    }
+
+    /**
+     * 物品当前的耐久度
+     */
+    public int getCurrentDurability() {
+        return currentDurability;
+    }
+
+    /**
+     * 物品的自定义名称
+     * @return 自定义名称，没有时返回null
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public LoreSettings getSettings() {
+        return settings;
+    }
+
+    public PlaceholderBatch getBatch() {
+        return batch;
+    }
+
+    /**
+     * 是否简化渲染（处理队列积压时使用）
+     */
+    public boolean isReduced() {
+        return reduced;
+    }
+
+    /**
+     * 获取材质对应的处理方案
+     */
+    public MaterialPlan getPlan() {
+        return settings.getMaterialPlan(material);
+    }
+}
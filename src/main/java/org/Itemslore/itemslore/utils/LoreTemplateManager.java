@@ -1,14 +1,9 @@
 package org.Itemslore.itemslore.utils;
 
 import org.Itemslore.itemslore.Itemslore;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.Damageable;
+import org.Itemslore.itemslore.managers.LoreSettings;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -19,349 +14,213 @@ public class LoreTemplateManager {
     private final Itemslore plugin;
     private final ColorManager colorManager;
     private final VariableProcessor variableProcessor;
-    private final ItemTypeChecker itemTypeChecker;
     
     public LoreTemplateManager(Itemslore plugin, ColorManager colorManager, VariableProcessor variableProcessor) {
         this.plugin = plugin;
         this.colorManager = colorManager;
         this.variableProcessor = variableProcessor;
-        this.itemTypeChecker = new ItemTypeChecker();
     }
     
     /**
      * 从模板生成物品lore内容
-     * @param item 物品
-     * @param player 玩家
-     * @param source 来源
+     * 只使用渲染上下文中的快照，可以在后台线程调用
+     * @param context 渲染上下文
      * @param randomLores 随机Lore列表
-     * @return 生成的lore列表
+     * @return 生成的lore列表及耐久度行的位置
      */
-    public List<String> generateLoreFromTemplate(ItemStack item, Player player, String source, List<String> randomLores) {
-        List<String> lore = new ArrayList<>();
+    public RenderedLore generateLoreFromTemplate(LoreRenderContext context, List<String> randomLores) {
+        // 模板在重载配置时已按材质选好（包括default和传统格式的回退）
+        LoreSettings settings = context.getSettings();
+        PlaceholderBatch batch = context.getBatch();
+        // 简化渲染时只处理内置变量
+        boolean external = !context.isReduced();
+        MaterialPlan plan = context.getPlan();
+        CompiledTemplate template = plan.getTemplate();
         
-        // 获取合适的模板
-        String templateName = findSuitableTemplate(item);
-        ConfigurationSection templateSection = plugin.getConfig().getConfigurationSection("lore.templates." + templateName);
+        List<String> lore = new ArrayList<>(template.getLines().size() + randomLores.size());
+        RenderValues values = new RenderValues(context, 0L);
+        StringBuilder builder = new StringBuilder(64);
+        int randomIndex = 0;
+        int durabilityLine = -1;
+        int relativeTimeLine = -1;
         
-        // 如果没有找到模板，使用默认模板
-        if (templateSection == null) {
-            templateSection = plugin.getConfig().getConfigurationSection("lore.templates.default");
-            // 如果还是没有，则使用传统格式
-            if (templateSection == null) {
-                return generateLegacyLore(item, player, source, randomLores);
-            }
-        }
-        
-        // 获取模板内容
-        List<String> templateContent = templateSection.getStringList("content");
-        
-        // 处理模板中的变量
-        for (String line : templateContent) {
-            String processedLine = line;
+        for (CompiledTemplate.Line line : template.getLines()) {
+            // 如果物品没有耐久度，则跳过耐久度相关的行
+            if (line.requiresDurability() && !values.hasDurability()) continue;
             
-            // 处理顶部分隔线
-            if (processedLine.contains("%ilore_top_separator%")) {
-                String separator = plugin.getConfig().getString("lore.basic-settings.top-separator", "&8&m⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤");
-                processedLine = processedLine.replace("%ilore_top_separator%", separator);
-            }
+            // 如果没有剩余的随机lore，则跳过依赖随机lore的行
+            if (line.requiresRandomLore() && randomIndex >= randomLores.size()) continue;
             
-            // 处理底部分隔线
-            if (processedLine.contains("%ilore_bottom_separator%")) {
-                String separator = plugin.getConfig().getString("lore.basic-settings.bottom-separator", "&8&m⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤");
-                processedLine = processedLine.replace("%ilore_bottom_separator%", separator);
-            }
+            CompiledText text = line.getText();
             
-            // 处理信息分隔线
-            if (processedLine.contains("%ilore_info_separator%")) {
-                String separator = plugin.getConfig().getString("lore.basic-settings.info-separator", "&8&m· · · · · · · · · · · · · · · · · · · ·");
-                processedLine = processedLine.replace("%ilore_info_separator%", separator);
-            }
-            
-            // 处理耐久度
-            if (processedLine.contains("%ilore_durability%") && item.getItemMeta() instanceof Damageable) {
-                Damageable damageable = (Damageable) item.getItemMeta();
-                int maxDurability = item.getType().getMaxDurability();
-                int currentDurability = maxDurability - damageable.getDamage();
-                
-                // 计算耐久度百分比
-                int durabilityPercentage = (maxDurability > 0) ? (currentDurability * 100 / maxDurability) : 100;
-                
-                String durabilityText = plugin.getConfig().getString("lore.durability-format", "&8❖ &7耐久: &c%ilore_current_low%&e%ilore_current_medium%&a%ilore_current_high%&8/&f%ilore_max%");
+            // 处理随机lore
+            if (text.contains(CompiledText.Token.RANDOM_LORE)) {
+                if (randomIndex >= randomLores.size()) continue;
                 
-                // 根据耐久度百分比处理不同颜色段
-                String currentLow = "";
-                String currentMedium = "";
-                String currentHigh = "";
+                // 第一个随机lore替换占位符，剩余的随机lore作为单独的行
+                builder.setLength(0);
+                render(text, values, randomLores.get(randomIndex++), builder);
+                lore.add(builder.toString());
                 
-                if (durabilityPercentage <= 20) {
-                    currentLow = String.valueOf(currentDurability);
-                } else if (durabilityPercentage <= 50) {
-                    currentMedium = String.valueOf(currentDurability);
-                } else {
-                    currentHigh = String.valueOf(currentDurability);
+                while (randomIndex < randomLores.size()) {
+                    lore.add(randomLores.get(randomIndex++));
                 }
-                
-                durabilityText = durabilityText
-                        .replace("%ilore_current_low%", currentLow)
-                        .replace("%ilore_current_medium%", currentMedium)
-                        .replace("%ilore_current_high%", currentHigh)
-                        .replace("%ilore_max%", String.valueOf(maxDurability));
-                
-                processedLine = processedLine.replace("%ilore_durability%", durabilityText);
-            } else if (processedLine.contains("%ilore_durability%")) {
-                // 如果物品没有耐久度，则删除该行
                 continue;
             }
             
-            // 处理获取时间
-            if (processedLine.contains("%ilore_time%") && plugin.getConfig().getBoolean("lore.show-time", true)) {
-                SimpleDateFormat dateFormat = new SimpleDateFormat(
-                        plugin.getConfig().getString("lore.time-format", "yyyy-MM-dd HH:mm:ss"));
-                String timeText = plugin.getConfig().getString("lore.time-prefix", "&7获取时间：&f%ilore_time%");
-                timeText = timeText.replace("%ilore_time%", dateFormat.format(new Date()));
-                
-                processedLine = processedLine.replace("%ilore_time%", timeText);
-            } else if (processedLine.contains("%ilore_time%")) {
-                // 如果不显示时间，则删除该行
-                continue;
-            }
+            builder.setLength(0);
+            render(text, values, null, builder);
+            String processedLine = builder.toString();
             
-            // 处理玩家名称
-            if (processedLine.contains("%ilore_player%") && plugin.getConfig().getBoolean("lore.show-player", true)) {
-                String playerText = plugin.getConfig().getString("lore.player-prefix", "&7获取人：&f%ilore_player%");
-                playerText = playerText.replace("%ilore_player%", player.getName());
-                
-                processedLine = processedLine.replace("%ilore_player%", playerText);
-            } else if (processedLine.contains("%ilore_player%")) {
-                // 如果不显示玩家，则删除该行
-                continue;
+            // 字面量已预先着色，只有包含其他变量的行需要处理变量并重新着色
+            if (line.needsVariables()) {
+                processedLine = colorManager.colorize(variableProcessor.parseAllVariables(
+                        processedLine, batch, external && line.needsExternalVariables()));
             }
             
-            // 处理来源
-            if (processedLine.contains("%ilore_source%") && plugin.getConfig().getBoolean("lore.show-source", true)) {
-                String sourceText = plugin.getConfig().getString("lore.source-prefix", "&7来源：&f%ilore_source%");
-                sourceText = sourceText.replace("%ilore_source%", source);
-                
-                processedLine = processedLine.replace("%ilore_source%", sourceText);
-            } else if (processedLine.contains("%ilore_source%")) {
-                // 如果不显示来源，则删除该行
-                continue;
+            // 记录第一个耐久度行的位置，耐久度变化时只更新这一行
+            if (durabilityLine < 0 && line.isLiveDurability()) {
+                durabilityLine = lore.size();
             }
             
-            // 处理随机lore
-            if (processedLine.contains("%ilore_random_lore%")) {
-                if (plugin.getConfig().getBoolean("lore.random-lore.enabled", true) && !randomLores.isEmpty()) {
-                    // 将第一个随机lore替换变量
-                    String firstLore = randomLores.remove(0); // 移除第一个并返回它
-                    lore.add(colorManager.colorize(processedLine.replace("%ilore_random_lore%", firstLore)));
-                    
-                    // 添加剩余的随机lore作为单独的行
-                    for (String randomLore : randomLores) {
-                        lore.add(colorManager.colorize(randomLore));
-                    }
-                    
-                    continue; // 跳过下面的添加，因为已经在这里处理了
-                } else {
-                    // 如果随机lore未启用或为空，删除该行
-                    continue;
-                }
+            // 记录第一个相对时间行的位置，查看物品时只更新这一行
+            if (relativeTimeLine < 0 && line.isLiveRelativeTime()) {
+                relativeTimeLine = lore.size();
             }
             
-            // 处理变量
-            processedLine = variableProcessor.parseAllVariables(processedLine, player, item);
-            
-            // 处理颜色代码
-            processedLine = colorManager.colorize(processedLine);
-            
-            // 添加到lore列表
             lore.add(processedLine);
         }
         
         // 添加自定义lore
-        if (plugin.getConfig().getBoolean("lore.custom-lore.enabled", false)) {
-            addCustomLoreToList(lore, item, player, source);
+        if (!plan.isLegacy() && settings.isCustomLoreEnabled()) {
+            addCustomLoreToList(lore, settings, batch, external);
         }
         
-        return lore;
+        return new RenderedLore(lore, durabilityLine, relativeTimeLine);
     }
     
     /**
-     * 获取适合物品的模板名称
-     * @param item 物品
-     * @return 模板名称
+     * 按物品当前的耐久度重新渲染耐久度行
+     * @param context 渲染上下文，耐久度行只包含耐久度占位符，不需要玩家和来源
+     * @return 耐久度行，模板中没有可单独更新的耐久度行或物品没有耐久度时返回null
      */
-    public String findSuitableTemplate(ItemStack item) {
-        ConfigurationSection templatesSection = plugin.getConfig().getConfigurationSection("lore.templates");
-        if (templatesSection == null) {
-            return "default";
-        }
-        
-        String materialName = item.getType().name().toUpperCase();
+    public String renderDurabilityLine(LoreRenderContext context) {
+        CompiledTemplate template = context.getPlan().getTemplate();
         
-        // 检查每个模板是否适用
-        for (String templateName : templatesSection.getKeys(false)) {
-            // 跳过默认模板
-            if (templateName.equals("default")) continue;
+        for (CompiledTemplate.Line line : template.getLines()) {
+            if (!line.isLiveDurability()) continue;
             
-            ConfigurationSection templateSection = templatesSection.getConfigurationSection(templateName);
-            if (templateSection != null && templateSection.getBoolean("enabled", true)) {
-                List<String> itemTypes = templateSection.getStringList("item-types");
-                
-                // 如果物品类型列表为空，表示适用于所有类型
-                if (itemTypes.isEmpty()) {
-                    return templateName;
-                }
-                
-                // 检查物品类型是否匹配
-                for (String type : itemTypes) {
-                    if (materialName.contains(type)) {
-                        return templateName;
-                    }
-                }
-                
-                // 检查特殊类型
-                if ((itemTypes.contains("WEAPON") && itemTypeChecker.isWeaponItem(item.getType())) ||
-                    (itemTypes.contains("TOOL") && itemTypeChecker.isToolItem(item.getType())) ||
-                    (itemTypes.contains("ARMOR") && itemTypeChecker.isArmorItem(item.getType()))) {
-                    return templateName;
-                }
+            RenderValues values = new RenderValues(context, 0L);
+            if (!values.hasDurability()) {
+                return null;
             }
+            
+            StringBuilder builder = new StringBuilder(64);
+            render(line.getText(), values, null, builder);
+            return builder.toString();
         }
-        
-        // 如果没有找到匹配的模板，返回默认模板
-        return "default";
+        return null;
     }
     
     /**
-     * 使用传统方式生成lore
-     * 用于兼容旧版本配置
+     * 按获取后经过的时间重新渲染相对时间行
+     * @param context 渲染上下文，相对时间行只包含相对时间占位符，不需要玩家和来源
+     * @param elapsed 获取后经过的毫秒数
+     * @return 相对时间行，模板中没有可单独更新的相对时间行时返回null
      */
-    private List<String> generateLegacyLore(ItemStack item, Player player, String source, List<String> randomLores) {
-        List<String> lore = new ArrayList<>();
-        
-        // 获取配置
-        boolean showDurability = plugin.getConfig().getBoolean("lore.show-durability", true);
-        boolean showTime = plugin.getConfig().getBoolean("lore.show-time", true);
-        boolean showPlayer = plugin.getConfig().getBoolean("lore.show-player", true);
-        boolean showSource = plugin.getConfig().getBoolean("lore.show-source", true);
+    public String renderRelativeTimeLine(LoreRenderContext context, long elapsed) {
+        CompiledTemplate template = context.getPlan().getTemplate();
         
-        // 添加顶部分割线
-        String topSeparator = plugin.getConfig().getString("lore.basic-settings.top-separator", "&8&m⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤");
-        lore.add(colorManager.colorize(topSeparator));
-        lore.add("");
-        
-        // 添加耐久度
-        if (showDurability && item.getItemMeta() instanceof Damageable) {
-            Damageable damageable = (Damageable) item.getItemMeta();
-            int maxDurability = item.getType().getMaxDurability();
-            int currentDurability = maxDurability - damageable.getDamage();
-            
-            // 计算耐久度百分比
-            int durabilityPercentage = (maxDurability > 0) ? (currentDurability * 100 / maxDurability) : 100;
-            
-            // 处理耐久度显示
-            String durabilityText = plugin.getConfig().getString("lore.durability-format", "&8❖ &7耐久: &c%ilore_current_low%&e%ilore_current_medium%&a%ilore_current_high%&8/&f%ilore_max%");
-                
-            // 根据耐久度百分比处理不同颜色段
-            String currentLow = "";
-            String currentMedium = "";
-            String currentHigh = "";
-            
-            if (durabilityPercentage <= 20) {
-                currentLow = String.valueOf(currentDurability);
-            } else if (durabilityPercentage <= 50) {
-                currentMedium = String.valueOf(currentDurability);
-            } else {
-                currentHigh = String.valueOf(currentDurability);
-            }
+        for (CompiledTemplate.Line line : template.getLines()) {
+            if (!line.isLiveRelativeTime()) continue;
             
-            durabilityText = durabilityText
-                    .replace("%ilore_current_low%", currentLow)
-                    .replace("%ilore_current_medium%", currentMedium)
-                    .replace("%ilore_current_high%", currentHigh)
-                    .replace("%ilore_max%", String.valueOf(maxDurability));
-            
-            durabilityText = colorManager.colorize(durabilityText);
-            
-            lore.add(durabilityText);
-            lore.add("");
-        }
-        
-        // 添加随机Lore
-        if (!randomLores.isEmpty()) {
-            lore.add("");
-            lore.addAll(randomLores);
+            StringBuilder builder = new StringBuilder(64);
+            render(line.getText(), new RenderValues(context, elapsed), null, builder);
+            return builder.toString();
         }
-        
-        // 添加信息分隔线
-        String infoSeparator = plugin.getConfig().getString("lore.basic-settings.info-separator", "&8&m· · · · · · · · · · · · · · · · · · · ·");
-        lore.add("");
-        lore.add(colorManager.colorize(infoSeparator));
-        lore.add("");
-        
-        // 添加获取时间
-        if (showTime) {
-            SimpleDateFormat dateFormat = new SimpleDateFormat(
-                    plugin.getConfig().getString("lore.time-format", "yyyy-MM-dd HH:mm:ss"));
-            String timeText = plugin.getConfig().getString("lore.time-prefix", "&7获取时间：&f%ilore_time%");
-            timeText = colorManager.colorize(timeText
-                    .replace("%ilore_time%", dateFormat.format(new Date())));
-            
-            lore.add(timeText);
-        }
-        
-        // 添加玩家名称
-        if (showPlayer) {
-            String playerText = plugin.getConfig().getString("lore.player-prefix", "&7获取人：&f%ilore_player%");
-            playerText = colorManager.colorize(playerText
-                    .replace("%ilore_player%", player.getName()));
-            
-            lore.add(playerText);
-        }
-        
-        // 添加来源
-        if (showSource) {
-            String sourceText = plugin.getConfig().getString("lore.source-prefix", "&7来源：&f%ilore_source%");
-            sourceText = colorManager.colorize(sourceText
-                    .replace("%ilore_source%", source));
+        return null;
+    }
+    
+    /**
+     * 渲染一行预编译文本
+     * @param text 预编译文本
+     * @param values 渲染所需的值
+     * @param randomLore 替换随机lore占位符的文本
+     * @param builder 输出
+     */
+    private void render(CompiledText text, RenderValues values, String randomLore, StringBuilder builder) {
+        int tokenCount = text.getTokenCount();
+        for (int i = 0; i < tokenCount; i++) {
+            builder.append(text.getLiteral(i));
             
-            lore.add(sourceText);
+            switch (text.getToken(i)) {
+                case DURABILITY_LOW:
+                    if (values.getDurabilityPercentage() <= 20) builder.append(values.getCurrentDurability());
+                    break;
+                case DURABILITY_MEDIUM:
+                    int percentage = values.getDurabilityPercentage();
+                    if (percentage > 20 && percentage <= 50) builder.append(values.getCurrentDurability());
+                    break;
+                case DURABILITY_HIGH:
+                    if (values.getDurabilityPercentage() > 50) builder.append(values.getCurrentDurability());
+                    break;
+                case DURABILITY_MAX:
+                    builder.append(values.getMaxDurability());
+                    break;
+                case TIME:
+                    builder.append(values.getTime());
+                    break;
+                case PLAYER:
+                    builder.append(values.getPlayerName());
+                    break;
+                case SOURCE:
+                    builder.append(values.getSource());
+                    break;
+                case RELATIVE_TIME:
+                    builder.append(values.getRelativeTime());
+                    break;
+                case RANDOM_LORE:
+                    if (randomLore != null) builder.append(randomLore);
+                    break;
+            }
         }
-        
-        // 添加底部分割线
-        lore.add("");
-        String bottomSeparator = plugin.getConfig().getString("lore.basic-settings.bottom-separator", "&8&m⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤⏤");
-        lore.add(colorManager.colorize(bottomSeparator));
-        
-        return lore;
+        builder.append(text.getLiteral(tokenCount));
     }
     
     /**
      * 添加自定义lore到列表中
      * @param lore 当前lore列表
-     * @param item 物品
-     * @param player 玩家
-     * @param source 来源
+     * @param settings 配置快照
+     * @param batch 变量批次
+     * @param external 是否解析外部变量
      */
-    private void addCustomLoreToList(List<String> lore, ItemStack item, Player player, String source) {
-        if (!plugin.getConfig().getBoolean("lore.custom-lore.enabled", false)) {
+    private void addCustomLoreToList(List<String> lore, LoreSettings settings, PlaceholderBatch batch,
+                                     boolean external) {
+        if (!settings.isCustomLoreEnabled()) {
             return;
         }
         
-        List<String> customLores = plugin.getConfig().getStringList("lore.custom-lore.lines");
+        List<String> customLores = settings.getCustomLoreLines();
+        List<VariableProcessor.Usage> usages = settings.getCustomLoreUsages();
         if (customLores.isEmpty()) {
             return;
         }
         
         // 添加空行分隔
-        if (plugin.getConfig().getBoolean("lore.basic-settings.show-empty-lines", true)) {
+        if (settings.isShowEmptyLines()) {
             lore.add("");
         }
         
         // 添加每一行自定义lore
-        for (String line : customLores) {
-            // 处理变量
-            line = variableProcessor.parseAllVariables(line, player, item);
+        for (int i = 0; i < customLores.size(); i++) {
+            String line = customLores.get(i);
+            VariableProcessor.Usage usage = usages.get(i);
+            
+            // 处理变量，没有变量的行直接跳过
+            if (usage != VariableProcessor.Usage.NONE) {
+                line = variableProcessor.parseAllVariables(line, batch,
+                        external && usage == VariableProcessor.Usage.EXTERNAL);
+            }
                 
             // 处理颜色代码
             line = colorManager.colorize(line);
@@ -369,4 +228,84 @@ public class LoreTemplateManager {
             lore.add(line);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 单次渲染所需的值，按需计算且只计算一次
+     */
+    private final class RenderValues {
+        private final LoreRenderContext context;
+        private final LoreSettings settings;
+        private final long elapsed;
+        
+        private boolean durabilityResolved;
+        private boolean hasDurability;
+        private int currentDurability;
+        private int maxDurability;
+        private int durabilityPercentage;
+        private String time;
+        private String source;
+        
+        RenderValues(LoreRenderContext context, long elapsed) {
+            this.context = context;
+            this.settings = context.getSettings();
+            this.elapsed = elapsed;
+        }
+        
+        boolean hasDurability() {
+            resolveDurability();
+            return hasDurability;
+        }
+        
+        int getCurrentDurability() {
+            resolveDurability();
+            return currentDurability;
+        }
+        
+        int getMaxDurability() {
+            resolveDurability();
+            return maxDurability;
+        }
+        
+        int getDurabilityPercentage() {
+            resolveDurability();
+            return durabilityPercentage;
+        }
+        
+        private void resolveDurability() {
+            if (durabilityResolved) return;
+            durabilityResolved = true;
+            
+            if (context.isDamageable()) {
+                hasDurability = true;
+                maxDurability = context.getMaxDurability();
+                currentDurability = context.getCurrentDurability();
+                
+                // 计算耐久度百分比
+                durabilityPercentage = (maxDurability > 0) ? (currentDurability * 100 / maxDurability) : 100;
+            }
+        }
+        
+        String getTime() {
+            if (time == null) {
+                time = settings.getTimeFormatter().format();
+            }
+            return time;
+        }
+        
+        String getRelativeTime() {
+            return settings.getRelativeTimeFormat().format(elapsed);
+        }
+        
+        String getPlayerName() {
+            return context.getPlayerName();
+        }
+        
+        String getSource() {
+            if (source == null) {
+                // 来源可能来自命令参数，保留其中的颜色代码
+                source = colorManager.colorize(context.getSource());
+            }
+            return source;
+        }
+    }
+}
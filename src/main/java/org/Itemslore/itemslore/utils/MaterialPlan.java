@@ -0,0 +1,65 @@
+package org.Itemslore.itemslore.utils;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 材质处理方案
+ * 重载配置时为每种材质预先确定使用的模板、适用的随机Lore池和随机Lore生成概率，
+ * 处理物品时只需按材质查表，不再遍历模板和池的配置。内容相同的方案会被合并为同一个实例
+ */
+public final class MaterialPlan {
+
+    private final CompiledTemplate template;
+    private final boolean legacy;
+    private final List<RandomLorePool> pools;
+    private final double chance;
+
+    /**
+     * @param template 使用的模板（已处理default和传统格式的回退）
+     * @param legacy 是否为传统格式模板
+     * @param pools 适用的随机Lore池，通用池在前
+     * @param chance 随机Lore生成概率(0-1)
+     */
+    public MaterialPlan(CompiledTemplate template, boolean legacy, List<RandomLorePool> pools, double chance) {
+        this.template = template;
+        this.legacy = legacy;
+        this.pools = List.copyOf(pools);
+        this.chance = chance;
+    }
+
+    public CompiledTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * 是否使用传统格式（不添加自定义Lore）
+     */
+    public boolean isLegacy() {
+        return legacy;
+    }
+
+    public List<RandomLorePool> getPools() {
+        return pools;
+    }
+
+    public double getChance() {
+        return chance;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MaterialPlan)) return false;
+        MaterialPlan other = (MaterialPlan) o;
+        return template == other.template
+                && legacy == other.legacy
+                && Double.compare(chance, other.chance) == 0
+                && pools.equals(other.pools);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(template), legacy, chance, pools);
+    }
+}
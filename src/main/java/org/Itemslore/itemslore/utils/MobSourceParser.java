@@ -1,6 +1,7 @@
 package org.Itemslore.itemslore.utils;
 
 import org.Itemslore.itemslore.Itemslore;
+import org.bukkit.Material;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 
@@ -101,6 +102,15 @@ public class MobSourceParser {
         return "击杀 " + localizedName;
     }
     
+    /**
+     * 解析方块掉落的来源信息
+     * @param blockType 被破坏的方块类型
+     * @return 格式化的来源信息
+     */
+    public String parseBlockSource(Material blockType) {
+        return "挖掘 " + blockType.name();
+    }
+    
     /**
      * 获取MythicMobs实体的自定义名称
      * @param entity 实体对象
@@ -131,7 +141,7 @@ public class MobSourceParser {
                 }
             }
         } catch (Exception e) {
-            if (plugin.getConfig().getBoolean("debug", false)) {
+            if (plugin.getSettings().isDebug()) {
                 plugin.getLogger().warning("获取MythicMobs名称时出错: " + e.getMessage());
             }
         }
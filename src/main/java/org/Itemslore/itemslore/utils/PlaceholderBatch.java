@@ -0,0 +1,95 @@
+package org.Itemslore.itemslore.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 单次渲染的变量批次
+ * 一个物品的所有Lore行共用同一个批次，相同的外部变量（PlaceholderAPI和其他插件）只解析一次，
+ * 之后直接使用记录的结果。在后台线程渲染时，所有变量在主线程预先解析后封存批次
+ */
+public final class PlaceholderBatch {
+    // 记录解析失败的变量，与解析结果区分
+    private static final Object UNRESOLVED = new Object();
+
+    private final Player player;
+    private final ItemStack item;
+    // 变量内容（去掉两侧%）到解析结果，解析失败时为UNRESOLVED
+    private final Map<String, Object> values = new HashMap<>();
+    // 封存后只使用已记录的结果，不再解析新的变量
+    private boolean sealed = false;
+    // 使用该批次的渲染上下文，内置变量从中读取物品数据
+    private LoreRenderContext context;
+
+    PlaceholderBatch(Player player, ItemStack item) {
+        this.player = player;
+        this.item = item;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public ItemStack getItem() {
+        return item;
+    }
+
+    /**
+     * 获取使用该批次的渲染上下文
+     * @return 渲染上下文，还未创建时返回null
+     */
+    public LoreRenderContext getContext() {
+        return context;
+    }
+
+    /**
+     * 关联渲染上下文，由LoreRenderContext创建时调用
+     */
+    void bind(LoreRenderContext context) {
+        this.context = context;
+    }
+
+    /**
+     * 封存批次，之后可以交给后台线程渲染
+     */
+    void seal() {
+        sealed = true;
+    }
+
+    /**
+     * 批次是否已封存
+     */
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * 变量是否已解析过（包括解析失败）
+     * @param token 变量内容
+     */
+    boolean contains(String token) {
+        return values.containsKey(token);
+    }
+
+    /**
+     * 获取已解析的值
+     * @param token 变量内容
+     * @return 解析结果；解析失败或未解析过时返回null
+     */
+    String lookup(String token) {
+        Object value = values.get(token);
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * 记录解析结果
+     * @param token 变量内容
+     * @param value 解析结果，可以为null
+     */
+    void store(String token, String value) {
+        values.put(token, value != null ? value : UNRESOLVED);
+    }
+}
@@ -0,0 +1,99 @@
+package org.Itemslore.itemslore.utils;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 外部变量的玩家缓存
+ * 按玩家记录PlaceholderAPI和其他插件变量的解析结果，在配置的有效时间（以tick计）内直接复用，
+ * 玩家退出或切换世界时清除
+ */
+public final class PlaceholderCache {
+    private final Itemslore plugin;
+    // 玩家UUID到该玩家的变量缓存（变量内容到缓存值）
+    private final Map<UUID, Map<String, CachedValue>> players = new ConcurrentHashMap<>();
+
+    public PlaceholderCache(Itemslore plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 获取缓存值
+     * @param player 玩家
+     * @param token 变量内容（去掉两侧%）
+     * @return 缓存值，没有缓存或已过期时返回null
+     */
+    CachedValue lookup(Player player, String token) {
+        Map<String, CachedValue> values = players.get(player.getUniqueId());
+        if (values == null) {
+            return null;
+        }
+
+        CachedValue cached = values.get(token);
+        if (cached == null || cached.expiresAt <= Bukkit.getCurrentTick()) {
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * 记录解析结果，有效时间为0的变量和解析失败的结果不记录
+     * 变量可能只是暂时无法解析，失败结果缓存后会在整个有效时间内保持原样
+     * @param player 玩家
+     * @param token 变量内容（去掉两侧%）
+     * @param value 解析结果
+     */
+    void store(Player player, String token, String value) {
+        if (value == null) {
+            return;
+        }
+        int ttl = plugin.getSettings().getPlaceholderTtl(token);
+        if (ttl <= 0) {
+            return;
+        }
+
+        players.computeIfAbsent(player.getUniqueId(), id -> new HashMap<>())
+                .put(token, new CachedValue(value, Bukkit.getCurrentTick() + ttl));
+    }
+
+    /**
+     * 清除玩家的缓存，玩家退出或切换世界时调用
+     * @param playerId 玩家UUID
+     */
+    public void invalidate(UUID playerId) {
+        players.remove(playerId);
+    }
+
+    /**
+     * 清除所有缓存，重载配置后调用
+     */
+    public void clear() {
+        players.clear();
+    }
+
+    /**
+     * 缓存的解析结果
+     */
+    static final class CachedValue {
+        private final String value;
+        private final int expiresAt;
+
+        CachedValue(String value, int expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * 解析结果
+         */
+        String getValue() {
+            return value;
+        }
+    }
+}
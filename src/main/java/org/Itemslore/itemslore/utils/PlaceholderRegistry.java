@@ -0,0 +1,325 @@
+package org.Itemslore.itemslore.utils;
+
+import org.Itemslore.itemslore.Itemslore;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 变量解析器注册表
+ * 按命名空间分发变量，解析顺序为：内置变量 → PlaceholderAPI → 已集成插件 → 动态查找插件方法。
+ * 动态查找的结果会被缓存，找不到处理方法的命名空间会被记录，之后直接跳过；
+ * 没有任何来源能处理的命名空间在调用PlaceholderAPI之前就会被跳过
+ */
+public class PlaceholderRegistry {
+    private final Itemslore plugin;
+    private final PlaceholderCache cache;
+
+    // 内置变量，启动时注册后不再修改
+    private final Map<String, BuiltinResolver> builtins = new HashMap<>();
+    // 已集成插件的变量，会随插件启用/禁用而变化
+    private final Map<String, PlaceholderResolver> integrations = new ConcurrentHashMap<>();
+    // 动态查找到的插件变量处理方法
+    private final Map<String, PlaceholderResolver> dynamicResolvers = new ConcurrentHashMap<>();
+    // 找不到变量处理方法的命名空间
+    private final Set<String> unboundNamespaces = ConcurrentHashMap.newKeySet();
+    // 没有PlaceholderAPI扩展、集成和变量处理方法的命名空间
+    private final Set<String> unknownNamespaces = ConcurrentHashMap.newKeySet();
+
+    // 动态查找时尝试的常见变量处理方法名
+    private static final String[] VARIABLE_METHOD_NAMES = {
+        "getVariable", "getPlaceholder", "getPlaceholderValue", "processVariable", "processPlaceholder"
+    };
+
+    public PlaceholderRegistry(Itemslore plugin, PlaceholderCache cache) {
+        this.plugin = plugin;
+        this.cache = cache;
+    }
+
+    /**
+     * 注册内置变量
+     * @param namespace 命名空间（小写）
+     * @param resolver 解析器，参数保持原始大小写
+     */
+    public void registerBuiltin(String namespace, BuiltinResolver resolver) {
+        builtins.put(namespace, resolver);
+    }
+
+    /**
+     * 注册已集成插件的变量
+     * @param namespace 命名空间（小写）
+     * @param resolver 解析器，参数已转换为小写
+     */
+    public void registerIntegration(String namespace, PlaceholderResolver resolver) {
+        integrations.put(namespace, resolver);
+        unknownNamespaces.remove(namespace);
+    }
+
+    /**
+     * 移除已集成插件的变量
+     * @param namespace 命名空间（小写）
+     */
+    public void unregisterIntegration(String namespace) {
+        integrations.remove(namespace);
+    }
+
+    /**
+     * 清除动态查找的缓存，插件启用/禁用或重载配置后调用
+     */
+    public void clearLookupCache() {
+        dynamicResolvers.clear();
+        unboundNamespaces.clear();
+        unknownNamespaces.clear();
+    }
+
+    /**
+     * PlaceholderAPI注册新扩展后调用，该命名空间不再跳过
+     * @param identifier 扩展标识
+     */
+    public void handleExpansionRegister(String identifier) {
+        unknownNamespaces.remove(identifier.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 解析一个变量
+     * @param token 去掉两侧%的变量内容
+     * @param separator 第一个下划线在token中的位置，没有下划线时为-1
+     * @param player 玩家对象
+     * @param item 物品对象
+     * @param external 是否处理外部变量，为false时只查找内置变量
+     * @return 解析结果，无法解析时返回null
+     */
+    public String resolve(String token, int separator, Player player, ItemStack item, boolean external) {
+        return resolve(token, separator, player, item, null, external);
+    }
+
+    /**
+     * 解析一个变量，外部变量的结果会记录在渲染批次中
+     * @param token 去掉两侧%的变量内容
+     * @param separator 第一个下划线在token中的位置，没有下划线时为-1
+     * @param player 玩家对象
+     * @param item 物品对象
+     * @param batch 渲染批次，为null时不记录
+     * @param external 是否处理外部变量，为false时只查找内置变量
+     * @return 解析结果，无法解析时返回null
+     */
+    public String resolve(String token, int separator, Player player, ItemStack item, PlaceholderBatch batch,
+                          boolean external) {
+        // 封存的批次只使用预先解析的结果，后台线程不能访问玩家和其他插件
+        if (batch != null && batch.isSealed()) {
+            return batch.lookup(token);
+        }
+
+        String namespace = (separator < 0 ? token : token.substring(0, separator)).toLowerCase(Locale.ROOT);
+        String params = separator < 0 ? "" : token.substring(separator + 1);
+
+        // 内置变量
+        BuiltinResolver builtin = builtins.get(namespace);
+        if (builtin != null) {
+            String value = builtin.resolve(params, player, item, batch != null ? batch.getContext() : null);
+            if (value != null) return value;
+        }
+
+        if (!external) {
+            return null;
+        }
+
+        if (batch == null) {
+            return resolveCached(token, namespace, params, player, item);
+        }
+
+        // 同一批次中已解析过的外部变量直接使用记录的结果
+        if (batch.contains(token)) {
+            return batch.lookup(token);
+        }
+        String value = resolveCached(token, namespace, params, player, item);
+        batch.store(token, value);
+        return value;
+    }
+
+    /**
+     * 解析外部变量，有效时间内直接使用玩家缓存中的结果
+     */
+    private String resolveCached(String token, String namespace, String params, Player player, ItemStack item) {
+        if (player == null) {
+            return resolveExternal(namespace, params, null, item);
+        }
+
+        PlaceholderCache.CachedValue cached = cache.lookup(player, token);
+        if (cached != null) {
+            return cached.getValue();
+        }
+
+        String value = resolveExternal(namespace, params, player, item);
+        cache.store(player, token, value);
+        return value;
+    }
+
+    /**
+     * 解析外部变量：PlaceholderAPI → 已集成插件 → 动态查找插件方法
+     */
+    private String resolveExternal(String namespace, String params, Player player, ItemStack item) {
+        // 已确认没有任何来源能处理
+        if (unknownNamespaces.contains(namespace)) {
+            return null;
+        }
+
+        // PlaceholderAPI，只对已注册的扩展调用
+        if (player != null && plugin.getPluginManager().isPlaceholderAPIEnabled()) {
+            String value = resolvePlaceholderAPI(namespace, params, player);
+            if (value != null) return value;
+        }
+
+        String lowerParams = params.toLowerCase(Locale.ROOT);
+
+        // 已集成的插件
+        PlaceholderResolver integration = integrations.get(namespace);
+        if (integration != null) {
+            return integration.resolve(lowerParams, player, item);
+        }
+
+        // 动态查找其他插件的变量处理方法
+        return resolveDynamic(namespace, lowerParams, player, item);
+    }
+
+    /**
+     * 通过PlaceholderAPI解析单个变量
+     * 直接调用对应的扩展，不再把变量拼回文本交给setPlaceholders重新扫描和查找扩展
+     */
+    private String resolvePlaceholderAPI(String namespace, String params, Player player) {
+        try {
+            me.clip.placeholderapi.PlaceholderAPIPlugin placeholderAPI =
+                    me.clip.placeholderapi.PlaceholderAPIPlugin.getInstance();
+            if (placeholderAPI == null) {
+                return null;
+            }
+
+            me.clip.placeholderapi.expansion.PlaceholderExpansion expansion =
+                    placeholderAPI.getLocalExpansionManager().getExpansion(namespace);
+            if (expansion == null) {
+                return null; // 没有对应的扩展
+            }
+            return expansion.onRequest(player, params);
+        } catch (Exception e) {
+            plugin.getLogger().warning("处理PlaceholderAPI变量时出错: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 检查PlaceholderAPI是否有对应命名空间的扩展
+     */
+    private boolean hasPlaceholderExpansion(String namespace) {
+        if (!plugin.getPluginManager().isPlaceholderAPIEnabled()) {
+            return false;
+        }
+        try {
+            me.clip.placeholderapi.PlaceholderAPIPlugin placeholderAPI =
+                    me.clip.placeholderapi.PlaceholderAPIPlugin.getInstance();
+            return placeholderAPI != null
+                    && placeholderAPI.getLocalExpansionManager().getExpansion(namespace) != null;
+        } catch (Exception e) {
+            // 无法确认时按存在处理，不跳过该命名空间
+            return true;
+        }
+    }
+
+    /**
+     * 动态查找插件的变量处理方法，查找结果（包括找不到）都会被缓存
+     */
+    private String resolveDynamic(String namespace, String params, Player player, ItemStack item) {
+        if (unboundNamespaces.contains(namespace)) {
+            return null;
+        }
+
+        PlaceholderResolver resolver = dynamicResolvers.get(namespace);
+        if (resolver == null) {
+            resolver = bindDynamicResolver(namespace);
+            if (resolver == null) {
+                unboundNamespaces.add(namespace);
+                // 也没有PlaceholderAPI扩展时，之后在调用PlaceholderAPI之前直接跳过
+                if (!hasPlaceholderExpansion(namespace)) {
+                    unknownNamespaces.add(namespace);
+                }
+                return null;
+            }
+            dynamicResolvers.put(namespace, resolver);
+        }
+
+        return resolver.resolve(params, player, item);
+    }
+
+    /**
+     * 在插件主类中查找变量处理方法并绑定为解析器
+     * @param pluginName 插件名称
+     * @return 解析器，插件不存在或没有处理方法时返回null
+     */
+    private PlaceholderResolver bindDynamicResolver(String pluginName) {
+        Plugin targetPlugin = Bukkit.getPluginManager().getPlugin(pluginName);
+        if (targetPlugin == null || !targetPlugin.isEnabled()) {
+            return null;
+        }
+
+        Class<?> pluginClass = targetPlugin.getClass();
+        for (String methodName : VARIABLE_METHOD_NAMES) {
+            try {
+                Method method = pluginClass.getMethod(methodName, String.class, Player.class);
+                MethodHandle handle = bind(method, targetPlugin, 2);
+                return (params, player, item) -> invokeDynamic(targetPlugin, handle, params, player);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                // 继续尝试
+            }
+
+            try {
+                Method method = pluginClass.getMethod(methodName, Player.class, String.class);
+                MethodHandle handle = bind(method, targetPlugin, 2);
+                return (params, player, item) -> invokeDynamic(targetPlugin, handle, player, params);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                // 继续尝试
+            }
+
+            try {
+                Method method = pluginClass.getMethod(methodName, String.class);
+                MethodHandle handle = bind(method, targetPlugin, 1);
+                return (params, player, item) -> invokeDynamic(targetPlugin, handle, params, null);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                // 继续尝试下一个方法名
+            }
+        }
+
+        return null;
+    }
+
+    private static MethodHandle bind(Method method, Plugin target, int parameterCount) throws IllegalAccessException {
+        return MethodHandles.publicLookup().unreflect(method)
+                .bindTo(target)
+                .asType(MethodType.genericMethodType(parameterCount));
+    }
+
+    private String invokeDynamic(Plugin targetPlugin, MethodHandle handle, Object first, Object second) {
+        if (!targetPlugin.isEnabled()) {
+            return null;
+        }
+
+        try {
+            Object value = handle.type().parameterCount() == 1
+                    ? (Object) handle.invokeExact(first)
+                    : (Object) handle.invokeExact(first, second);
+            return value != null ? value.toString() : null;
+        } catch (Throwable e) {
+            // 插件方法调用失败时保留原始变量
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.Itemslore.itemslore.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * 变量解析器
+ * 每个命名空间（%命名空间_参数%中第一个下划线前的部分）对应一个解析器
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+
+    /**
+     * 解析变量
+     * @param params 第一个下划线之后的参数部分
+     * @param player 玩家对象，可能为null
+     * @param item 物品对象，可能为null
+     * @return 解析结果，无法解析时返回null（保留原始变量）
+     */
+    String resolve(String params, Player player, ItemStack item);
+}
@@ -0,0 +1,118 @@
+package org.Itemslore.itemslore.utils;
+
+/**
+ * 变量扫描器
+ * 按PlaceholderAPI的规则在文本中查找%命名空间_参数%：第一个下划线前为命名空间（不能包含空格），
+ * 之后直到下一个%为参数。只记录位置，不复制文本
+ */
+public final class PlaceholderTokenizer {
+
+    private final String text;
+    private int position;
+
+    private int start = -1;
+    private int end = -1;
+    private int separator = -1;
+
+    public PlaceholderTokenizer(String text) {
+        this.text = text;
+        this.position = text.indexOf('%');
+    }
+
+    /**
+     * 查找下一个变量
+     * @return 是否找到
+     */
+    public boolean next() {
+        int length = text.length();
+        while (position >= 0 && position + 1 < length) {
+            int candidate = position;
+            int closing = -1;
+            int underscore = -1;
+            int scan = candidate + 1;
+
+            for (; scan < length; scan++) {
+                char c = text.charAt(scan);
+                if (c == '%') {
+                    closing = scan;
+                    break;
+                }
+                if (underscore < 0) {
+                    if (c == '_') {
+                        underscore = scan;
+                    } else if (c == ' ') {
+                        break; // 命名空间中不能有空格
+                    }
+                }
+            }
+
+            if (closing < 0) {
+                if (scan >= length) break; // 没有闭合的%
+                position = text.indexOf('%', scan);
+                continue;
+            }
+
+            if (closing == candidate + 1) {
+                position = closing; // 连续的%%，从第二个%重新开始
+                continue;
+            }
+
+            start = candidate;
+            end = closing;
+            separator = underscore;
+            // 默认按未解析处理，闭合的%可能是下一个变量的开头
+            position = closing;
+            return true;
+        }
+
+        position = -1;
+        return false;
+    }
+
+    /**
+     * 当前变量已被替换，从闭合的%之后继续查找
+     */
+    public void consume() {
+        position = text.indexOf('%', end + 1);
+    }
+
+    /**
+     * 当前变量开头%的位置
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * 当前变量闭合%的位置
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * 去掉两侧%的变量内容
+     */
+    public String getToken() {
+        return text.substring(start + 1, end);
+    }
+
+    /**
+     * 第一个下划线在变量内容中的位置，没有下划线时为-1
+     */
+    public int getSeparator() {
+        return separator < 0 ? -1 : separator - start - 1;
+    }
+
+    /**
+     * 检查命名空间是否等于指定值（忽略大小写），不创建子串
+     * @param namespace 小写命名空间
+     * @return 是否相等
+     */
+    public boolean namespaceEquals(String namespace) {
+        int namespaceEnd = separator < 0 ? end : separator;
+        int namespaceLength = namespaceEnd - start - 1;
+        return namespaceLength == namespace.length()
+                && text.regionMatches(true, start + 1, namespace, 0, namespaceLength);
+    }
+}
@@ -0,0 +1,183 @@
+package org.Itemslore.itemslore.utils;
+
+import java.util.List;
+
+/**
+ * 随机Lore条目
+ * 重载时由池配置解析而来，权重、唯一/固定标记和唯一性类别都已预先计算
+ */
+public final class RandomLoreEntry {
+
+    // 默认权重为0.5 (50%)
+    private static final double DEFAULT_WEIGHT = 0.5;
+
+    private final String poolName;
+    private final String text;
+    private final double weight;
+    private final boolean unique;
+    private final boolean fixed;
+    private final String uniqueCategory;
+    private final VariableProcessor.Usage variableUsage;
+
+    private RandomLoreEntry(String poolName, String text, double weight, boolean unique, boolean fixed,
+                            String uniqueCategory) {
+        this.poolName = poolName;
+        this.text = text;
+        this.weight = weight;
+        this.unique = unique;
+        this.fixed = fixed;
+        this.uniqueCategory = uniqueCategory;
+        this.variableUsage = VariableProcessor.analyze(text);
+    }
+
+    /**
+     * 解析一个池配置条目
+     * 支持格式：["文本", 权重, 唯一性标记(可选), 固定标记(可选)] 或简单字符串，
+     * 文本中的"UNIQUE:"/"FIXED:"前缀同样会被识别
+     * @param poolName 所属池名称
+     * @param loreObj 原始配置条目
+     * @param colorManager 颜色管理器
+     * @return 解析后的条目，无效条目返回null
+     */
+    public static RandomLoreEntry parse(String poolName, Object loreObj, ColorManager colorManager) {
+        double weight = DEFAULT_WEIGHT;
+        String loreText;
+        boolean unique = false; // 默认非唯一
+        boolean fixed = false;  // 默认非固定
+
+        if (loreObj instanceof List) {
+            List<?> loreEntry = (List<?>) loreObj;
+            if (loreEntry.isEmpty()) {
+                return null; // 跳过无效条目
+            }
+
+            loreText = String.valueOf(loreEntry.get(0));
+            if (loreEntry.size() >= 2) {
+                weight = parseWeight(loreEntry.get(1));
+            }
+            if (loreEntry.size() >= 3) {
+                unique = Boolean.parseBoolean(String.valueOf(loreEntry.get(2)));
+            }
+            if (loreEntry.size() >= 4) {
+                fixed = Boolean.parseBoolean(String.valueOf(loreEntry.get(3)));
+            }
+        } else {
+            // 简单字符串格式
+            loreText = String.valueOf(loreObj);
+        }
+
+        // 检查文本中是否包含特殊标记
+        if (loreText.contains("UNIQUE:")) {
+            unique = true;
+            loreText = loreText.replace("UNIQUE:", "");
+        }
+
+        if (loreText.contains("FIXED:")) {
+            fixed = true;
+            loreText = loreText.replace("FIXED:", "");
+        }
+
+        String category = unique ? determineUniqueCategory(loreText) : null;
+        return new RandomLoreEntry(poolName, colorManager.colorize(loreText), weight, unique, fixed, category);
+    }
+
+    /**
+     * 将配置中的权重转换为0.1-1范围
+     * @param weightObj 原始权重
+     * @return 规范化后的权重
+     */
+    private static double parseWeight(Object weightObj) {
+        try {
+            if (weightObj instanceof Number) {
+                double rawWeight = ((Number) weightObj).doubleValue();
+                if (rawWeight > 10) { // 如果是旧系统的1-100权重
+                    return Math.max(0.1, Math.min(1.0, rawWeight / 100.0));
+                }
+                // 如果是新系统的0.1-1权重
+                return Math.max(0.1, Math.min(1.0, rawWeight));
+            }
+
+            double weight = Double.parseDouble(String.valueOf(weightObj)) / 10.0;
+            return Math.max(0.1, Math.min(1.0, weight));
+        } catch (Exception e) {
+            return DEFAULT_WEIGHT; // 解析失败，使用默认权重
+        }
+    }
+
+    /**
+     * 确定唯一性Lore的类别
+     * 根据Lore文本内容提取类别信息，用于区分不同种类的唯一性Lore
+     * @param loreText Lore文本内容
+     * @return 唯一性类别标识
+     */
+    private static String determineUniqueCategory(String loreText) {
+        // 尝试根据颜色代码和特殊符号后的第一个词来确定类别
+
+        // 方法1：如果包含冒号，提取冒号前的关键字
+        if (loreText.contains(":")) {
+            String beforeColon = loreText.substring(0, loreText.indexOf(":")).trim();
+            // 寻找最后一个空格，取最后一个词
+            int lastSpaceIndex = beforeColon.lastIndexOf(" ");
+            if (lastSpaceIndex != -1 && lastSpaceIndex < beforeColon.length() - 1) {
+                return beforeColon.substring(lastSpaceIndex + 1);
+            }
+            return beforeColon; // 如果没有空格，返回整个冒号前的内容
+        }
+
+        // 方法2：按空格分割，找到第一个不是颜色代码的词
+        String[] parts = loreText.split(" ");
+        for (String rawPart : parts) {
+            String part = rawPart.trim();
+            if (!part.isEmpty() && !part.startsWith("&") && !part.startsWith("§")) {
+                return part;
+            }
+        }
+
+        // 如果无法确定特定类别，根据内容生成一个唯一标识
+        // 使用hashCode可以为相同内容生成相同的标识
+        return "UNIQUE_" + Math.abs(loreText.hashCode() % 1000);
+    }
+
+    /**
+     * 获取所属池名称
+     */
+    public String getPoolName() {
+        return poolName;
+    }
+
+    /**
+     * 获取已着色的文本（变量尚未处理）
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 获取规范化后的权重(0.1-1)
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public boolean isFixed() {
+        return fixed;
+    }
+
+    /**
+     * 获取唯一性类别，非唯一条目返回null
+     */
+    public String getUniqueCategory() {
+        return uniqueCategory;
+    }
+
+    /**
+     * 获取文本中变量的类型
+     */
+    public VariableProcessor.Usage getVariableUsage() {
+        return variableUsage;
+    }
+}
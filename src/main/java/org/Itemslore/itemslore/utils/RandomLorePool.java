@@ -0,0 +1,104 @@
+package org.Itemslore.itemslore.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预解析的随机Lore池
+ * 固定条目和参与随机的条目在重载时就已分开，随机条目的权重树和唯一性类别索引也一并构建
+ */
+public final class RandomLorePool {
+
+    private static final int[] NO_INDICES = new int[0];
+
+    private final String name;
+    private final List<RandomLoreEntry> fixedEntries;
+    private final List<RandomLoreEntry> randomEntries;
+    private final WeightTree weightTree;
+    private final Map<String, int[]> uniqueCategoryIndices;
+
+    private RandomLorePool(String name, List<RandomLoreEntry> fixedEntries, List<RandomLoreEntry> randomEntries) {
+        this.name = name;
+        this.fixedEntries = fixedEntries;
+        this.randomEntries = randomEntries;
+
+        double[] weights = new double[randomEntries.size()];
+        Map<String, List<Integer>> categories = new HashMap<>();
+        for (int i = 0; i < weights.length; i++) {
+            RandomLoreEntry entry = randomEntries.get(i);
+            weights[i] = entry.getWeight();
+            if (entry.isUnique()) {
+                categories.computeIfAbsent(entry.getUniqueCategory(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        this.weightTree = WeightTree.build(weights);
+
+        Map<String, int[]> indices = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> category : categories.entrySet()) {
+            indices.put(category.getKey(), category.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        this.uniqueCategoryIndices = Collections.unmodifiableMap(indices);
+    }
+
+    /**
+     * 解析池配置
+     * @param name 池名称
+     * @param rawEntries 原始配置条目
+     * @param colorManager 颜色管理器
+     * @return 预解析的池
+     */
+    public static RandomLorePool compile(String name, List<?> rawEntries, ColorManager colorManager) {
+        List<RandomLoreEntry> fixed = new ArrayList<>();
+        List<RandomLoreEntry> random = new ArrayList<>();
+
+        for (Object loreObj : rawEntries) {
+            RandomLoreEntry entry = RandomLoreEntry.parse(name, loreObj, colorManager);
+            if (entry == null) continue;
+
+            if (entry.isFixed()) {
+                fixed.add(entry);
+            } else {
+                random.add(entry);
+            }
+        }
+
+        return new RandomLorePool(name, Collections.unmodifiableList(fixed), Collections.unmodifiableList(random));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取固定条目（总是添加，不受概率影响）
+     */
+    public List<RandomLoreEntry> getFixedEntries() {
+        return fixedEntries;
+    }
+
+    /**
+     * 获取参与随机选择的条目
+     */
+    public List<RandomLoreEntry> getRandomEntries() {
+        return randomEntries;
+    }
+
+    /**
+     * 获取随机条目的权重树，序号与{@link #getRandomEntries()}一致
+     */
+    public WeightTree getWeightTree() {
+        return weightTree;
+    }
+
+    /**
+     * 获取指定唯一性类别的随机条目序号
+     * @param category 唯一性类别
+     * @return 条目序号，没有该类别时返回空数组
+     */
+    public int[] getUniqueCategoryIndices(String category) {
+        return uniqueCategoryIndices.getOrDefault(category, NO_INDICES);
+    }
+}
@@ -0,0 +1,54 @@
+package org.Itemslore.itemslore.utils;
+
+/**
+ * 相对时间格式，用于%ilore_relative_time%
+ * 经过的时间按刚刚/分钟/小时/天分段，同一分段内显示的文本相同，
+ * 分段起点作为分段标识，用于判断是否需要重新渲染
+ */
+public final class RelativeTimeFormat {
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private final String justNow;
+    private final String minutes;
+    private final String hours;
+    private final String days;
+
+    /**
+     * @param justNow 不到一分钟时显示的文本
+     * @param minutes 分钟格式，{n}替换为数量
+     * @param hours 小时格式，{n}替换为数量
+     * @param days 天数格式，{n}替换为数量
+     */
+    public RelativeTimeFormat(String justNow, String minutes, String hours, String days) {
+        this.justNow = justNow;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.days = days;
+    }
+
+    /**
+     * 获取经过时间所在的分段
+     * @param elapsed 经过的毫秒数
+     * @return 分段起点（毫秒），同一分段内相同
+     */
+    public long bucket(long elapsed) {
+        if (elapsed < MINUTE) return 0L;
+        if (elapsed < HOUR) return elapsed - elapsed % MINUTE;
+        if (elapsed < DAY) return elapsed - elapsed % HOUR;
+        return elapsed - elapsed % DAY;
+    }
+
+    /**
+     * 格式化经过的时间
+     * @param elapsed 经过的毫秒数
+     * @return 相对时间文本
+     */
+    public String format(long elapsed) {
+        if (elapsed < MINUTE) return justNow;
+        if (elapsed < HOUR) return minutes.replace("{n}", String.valueOf(elapsed / MINUTE));
+        if (elapsed < DAY) return hours.replace("{n}", String.valueOf(elapsed / HOUR));
+        return days.replace("{n}", String.valueOf(elapsed / DAY));
+    }
+}
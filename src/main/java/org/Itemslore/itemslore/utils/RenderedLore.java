@@ -0,0 +1,39 @@
+package org.Itemslore.itemslore.utils;
+
+import java.util.List;
+
+/**
+ * 模板渲染结果
+ * 除了生成的Lore行，还记录可以在之后单独更新的耐久度行和相对时间行的位置
+ */
+public final class RenderedLore {
+    private final List<String> lines;
+    private final int durabilityLine;
+    private final int relativeTimeLine;
+
+    RenderedLore(List<String> lines, int durabilityLine, int relativeTimeLine) {
+        this.lines = lines;
+        this.durabilityLine = durabilityLine;
+        this.relativeTimeLine = relativeTimeLine;
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * 获取耐久度行在生成的Lore中的位置
+     * @return 行号，没有可单独更新的耐久度行时返回-1
+     */
+    public int getDurabilityLine() {
+        return durabilityLine;
+    }
+
+    /**
+     * 获取相对时间行在生成的Lore中的位置
+     * @return 行号，没有可单独更新的相对时间行时返回-1
+     */
+    public int getRelativeTimeLine() {
+        return relativeTimeLine;
+    }
+}
@@ -0,0 +1,122 @@
+package org.Itemslore.itemslore.utils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 获取时间格式化缓存
+ * 重载配置时把时间格式编译为DateTimeFormatter，并根据格式中最小的时间单位确定结果的有效期，
+ * 例如"yyyy-MM-dd HH:mm"每分钟只需格式化一次。可以在任意线程调用
+ */
+public final class TimeFormatCache {
+    private final DateTimeFormatter formatter;
+    private final ZoneId zone;
+    // 格式中最小的时间单位，为null时不缓存（包含毫秒等更小的单位）
+    private final ChronoUnit precision;
+
+    private volatile Entry cached;
+
+    private TimeFormatCache(DateTimeFormatter formatter, ZoneId zone, ChronoUnit precision) {
+        this.formatter = formatter;
+        this.zone = zone;
+        this.precision = precision;
+    }
+
+    /**
+     * 编译时间格式
+     * @param pattern 时间格式
+     * @return 格式化缓存
+     * @throws IllegalArgumentException 格式无效时抛出
+     */
+    public static TimeFormatCache compile(String pattern) {
+        ZoneId zone = ZoneId.systemDefault();
+        return new TimeFormatCache(DateTimeFormatter.ofPattern(pattern).withZone(zone), zone, findPrecision(pattern));
+    }
+
+    /**
+     * 格式化当前时间，结果在最小时间单位改变前直接复用
+     * @return 格式化后的时间
+     */
+    public String format() {
+        long now = System.currentTimeMillis();
+        Entry entry = cached;
+        if (entry != null && now >= entry.validFrom && now < entry.validUntil) {
+            return entry.text;
+        }
+
+        Instant instant = Instant.ofEpochMilli(now);
+        String text = formatter.format(instant);
+        if (precision == null) {
+            return text;
+        }
+
+        // 按本地时间截断，跨越夏令时切换时同样正确
+        ZonedDateTime start = ZonedDateTime.ofInstant(instant, zone).truncatedTo(precision);
+        long validFrom = start.toInstant().toEpochMilli();
+        long validUntil = start.plus(1, precision).toInstant().toEpochMilli();
+        cached = new Entry(text, validFrom, validUntil);
+        return text;
+    }
+
+    /**
+     * 找出格式中最小的时间单位，引号中的文本不计
+     */
+    static ChronoUnit findPrecision(String pattern) {
+        ChronoUnit precision = ChronoUnit.DAYS;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                continue;
+            }
+            if (quoted) continue;
+
+            ChronoUnit unit;
+            switch (c) {
+                case 'S':
+                case 'n':
+                case 'N':
+                case 'A':
+                    return null; // 秒以下的单位，不缓存
+                case 's':
+                    unit = ChronoUnit.SECONDS;
+                    break;
+                case 'm':
+                    unit = ChronoUnit.MINUTES;
+                    break;
+                case 'H':
+                case 'h':
+                case 'k':
+                case 'K':
+                case 'a':
+                    unit = ChronoUnit.HOURS;
+                    break;
+                default:
+                    continue; // 日期和其他字段按天计
+            }
+            if (unit.compareTo(precision) < 0) {
+                precision = unit;
+            }
+        }
+        return precision;
+    }
+
+    /**
+     * 缓存的格式化结果及其有效期
+     */
+    private static final class Entry {
+        private final String text;
+        private final long validFrom;
+        private final long validUntil;
+
+        Entry(String text, long validFrom, long validUntil) {
+            this.text = text;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -2,25 +2,73 @@ package org.Itemslore.itemslore.utils;
 
 import org.Itemslore.itemslore.Itemslore;
 import org.Itemslore.itemslore.managers.PluginManager;
-import org.bukkit.Bukkit;
-import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.plugin.Plugin;
+import org.bukkit.inventory.meta.ItemMeta;
 
-import java.lang.reflect.Method;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /**
  * 变量处理器，用于处理文本中的各种变量替换
+ * 每行文本只扫描一次，识别出的每个%命名空间_参数%变量交给{@link PlaceholderRegistry}按命名空间分发
  */
 public class VariableProcessor {
+    private static final String NAMESPACE_ILORE = "ilore";
+    private static final String NAMESPACE_MATERIAL = "material";
+    private static final String NAMESPACE_ITEM = "item";
+    private static final String[] BUILTIN_NAMESPACES = {NAMESPACE_ILORE, NAMESPACE_MATERIAL, NAMESPACE_ITEM};
+    
     private final Itemslore plugin;
-    private final Pattern variablePattern = Pattern.compile("%([a-zA-Z0-9_]+)_([a-zA-Z0-9_]+)%");
+    private final PlaceholderCache placeholderCache;
+    private final PlaceholderRegistry registry;
     
     public VariableProcessor(Itemslore plugin) {
         this.plugin = plugin;
+        this.placeholderCache = new PlaceholderCache(plugin);
+        this.registry = new PlaceholderRegistry(plugin, placeholderCache);
+        registerBuiltins();
+        registerIntegrations();
+    }
+    
+    /**
+     * 注册ItemsLore插件的自定义变量
+     */
+    private void registerBuiltins() {
+        registry.registerBuiltin(NAMESPACE_ILORE, this::resolveItemsLoreVariable);
+        
+        // 不带ilore前缀的旧变量：%material_name%、%item_name%
+        registry.registerBuiltin(NAMESPACE_MATERIAL, (params, player, item, context) ->
+                params.equals("name") && item != null ? item.getType().name() : null);
+        registry.registerBuiltin(NAMESPACE_ITEM, (params, player, item, context) ->
+                params.equals("name") && item != null ? getItemName(item, context) : null);
+    }
+    
+    /**
+     * 注册已集成插件的变量
+     */
+    private void registerIntegrations() {
+        PluginManager pluginManager = plugin.getPluginManager();
+        registry.registerIntegration("vault", pluginManager.getVaultHook());
+        registry.registerIntegration("mv", pluginManager.getMultiverseHook());
+        registry.registerIntegration("multiverse", pluginManager.getMultiverseHook());
+        registry.registerIntegration("mw", pluginManager.getMultiWorldHook());
+        registry.registerIntegration("multiworld", pluginManager.getMultiWorldHook());
+    }
+    
+    /**
+     * 获取变量解析器注册表
+     * @return 注册表
+     */
+    public PlaceholderRegistry getRegistry() {
+        return registry;
+    }
+    
+    /**
+     * 获取外部变量的玩家缓存
+     * @return 玩家缓存
+     */
+    public PlaceholderCache getPlaceholderCache() {
+        return placeholderCache;
     }
     
     /**
@@ -31,437 +79,222 @@ public class VariableProcessor {
      * @return 处理后的文本
      */
     public String parseAllVariables(String text, Player player, ItemStack item) {
-        // 首先处理自定义的ItemsLore插件变量
-        text = parseItemsLoreVariables(text, player, item);
-        
-        // 然后尝试使用PlaceholderAPI处理所有变量
-        PluginManager pluginManager = plugin.getPluginManager();
-        
-        if (pluginManager.isPlaceholderAPIEnabled() && player != null) {
-            try {
-                text = me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, text);
-            } catch (Exception e) {
-                plugin.getLogger().warning("处理PlaceholderAPI变量时出错: " + e.getMessage());
-            }
-        }
-        
-        // 然后检查是否还有未处理的变量，尝试用其他插件变量处理
-        Matcher matcher = variablePattern.matcher(text);
-        StringBuilder resultBuilder = new StringBuilder(text);
-        int offset = 0;
-        
-        while (matcher.find()) {
-            String fullMatch = matcher.group(0);
-            String pluginName = matcher.group(1).toLowerCase();
-            String variableName = matcher.group(2).toLowerCase();
-            
-            String replacement = processPluginVariable(pluginName, variableName, player, item);
-            
-            if (!fullMatch.equals(replacement)) {
-                int start = matcher.start() + offset;
-                int end = matcher.end() + offset;
-                resultBuilder.replace(start, end, replacement);
-                offset += replacement.length() - fullMatch.length();
-            }
-        }
-        
-        return resultBuilder.toString();
+        return parseAllVariables(text, player, item, true);
     }
     
     /**
-     * 处理ItemsLore插件的自定义变量
+     * 处理文本中的变量
+     * 变量的识别规则与PlaceholderAPI一致：第一个下划线前为命名空间（不能包含空格），之后直到下一个%为参数
      * @param text 待处理的文本
      * @param player 玩家对象
      * @param item 物品对象
+     * @param external 是否处理外部变量（PlaceholderAPI和其他插件），为false时只处理内置变量
      * @return 处理后的文本
      */
-    private String parseItemsLoreVariables(String text, Player player, ItemStack item) {
-        if (text == null || text.isEmpty()) {
-            return text;
-        }
-        
-        // 替换与物品相关的变量
-        if (item != null) {
-            text = text.replace("%ilore_material_name%", item.getType().name());
-            text = text.replace("%material_name%", item.getType().name());
-            
-            if (item.hasItemMeta() && item.getItemMeta().hasDisplayName()) {
-                text = text.replace("%ilore_item_name%", item.getItemMeta().getDisplayName());
-                text = text.replace("%item_name%", item.getItemMeta().getDisplayName());
-            } else {
-                text = text.replace("%ilore_item_name%", formatMaterialName(item.getType().name()));
-                text = text.replace("%item_name%", formatMaterialName(item.getType().name()));
-            }
-        }
-        
-        // 替换与玩家相关的变量
-        if (player != null) {
-            text = text.replace("%ilore_player%", player.getName());
-            text = text.replace("%ilore_player_name%", player.getName());
-            text = text.replace("%ilore_player_displayname%", player.getDisplayName());
-            
-            // 替换世界相关变量
-            text = text.replace("%ilore_world%", player.getWorld().getName());
-            text = text.replace("%ilore_world_name%", player.getWorld().getName());
-        }
-        
-        return text;
+    public String parseAllVariables(String text, Player player, ItemStack item, boolean external) {
+        return parse(text, player, item, null, external);
     }
     
     /**
-     * 格式化物品材质名称为更易读的格式
-     * @param materialName 物品材质名
-     * @return 格式化后的名称
+     * 在渲染批次中处理文本中的变量，同一批次中相同的外部变量只解析一次
+     * @param text 待处理的文本
+     * @param batch 渲染批次
+     * @param external 是否处理外部变量（PlaceholderAPI和其他插件），为false时只处理内置变量
+     * @return 处理后的文本
      */
-    private String formatMaterialName(String materialName) {
-        String[] parts = materialName.toLowerCase().split("_");
-        StringBuilder formattedName = new StringBuilder();
-        
-        for (String part : parts) {
-            if (!part.isEmpty()) {
-                formattedName.append(part.substring(0, 1).toUpperCase())
-                        .append(part.substring(1))
-                        .append(" ");
-            }
-        }
-        
-        return formattedName.toString().trim();
+    public String parseAllVariables(String text, PlaceholderBatch batch, boolean external) {
+        return parse(text, batch.getPlayer(), batch.getItem(), batch, external);
     }
     
     /**
-     * 处理特定插件的变量
-     * @param pluginName 插件名称
-     * @param variableName 变量名称
+     * 创建一次物品渲染使用的变量批次
      * @param player 玩家对象
      * @param item 物品对象
-     * @return 替换后的文本
+     * @return 渲染批次
      */
-    private String processPluginVariable(String pluginName, String variableName, Player player, ItemStack item) {
-        // 尝试处理已知插件的变量
-        switch (pluginName.toLowerCase()) {
-            case "vault":
-                return processVaultVariable(variableName, player);
-            case "mmoitems":
-                return processMMOItemsVariable(variableName, item);
-            case "itemsadder":
-                return processItemsAdderVariable(variableName, item);
-            case "mythicmobs":
-                return processMythicMobsVariable(variableName, item);
-            case "mv":
-            case "multiverse":
-                return processMultiverseVariable(variableName, player);
-            case "mw":
-            case "multiworld":
-                return processMultiWorldVariable(variableName, player);
-            default:
-                // 尝试动态调用其他插件的变量处理方法
-                return processDynamicPluginVariable(pluginName, variableName, player, item);
-        }
+    public PlaceholderBatch newBatch(Player player, ItemStack item) {
+        return new PlaceholderBatch(player, item);
     }
     
-    /**
-     * 处理Multiverse-Core插件变量
-     */
-    private String processMultiverseVariable(String variableName, Player player) {
-        PluginManager pluginManager = plugin.getPluginManager();
-        
-        if (!pluginManager.isPluginEnabled("Multiverse-Core") || player == null) {
-            return "%" + "mv" + "_" + variableName + "%";
+    private String parse(String text, Player player, ItemStack item, PlaceholderBatch batch, boolean external) {
+        if (text == null || text.indexOf('%') < 0) {
+            return text; // 没有变量，直接返回
         }
         
-        try {
-            Plugin multiversePlugin = pluginManager.getSupportedPlugin("Multiverse-Core");
-            if (multiversePlugin == null) return "%" + "mv" + "_" + variableName + "%";
-            
-            World world = player.getWorld();
-            
-            switch (variableName) {
-                case "world":
-                case "worldname":
-                    return world.getName();
-                    
-                case "world_alias":
-                case "worldalias":
-                    // 尝试获取世界别名
-                    try {
-                        Class<?> mvCoreClass = Class.forName("com.onarandombox.MultiverseCore.MultiverseCore");
-                        Object mvCore = multiversePlugin;
-                        
-                        Method getWorldManagerMethod = mvCoreClass.getMethod("getMVWorldManager");
-                        Object worldManager = getWorldManagerMethod.invoke(mvCore);
-                        
-                        Class<?> mvWorldManagerClass = worldManager.getClass();
-                        Method getMVWorldMethod = mvWorldManagerClass.getMethod("getMVWorld", String.class);
-                        Object mvWorld = getMVWorldMethod.invoke(worldManager, world.getName());
-                        
-                        if (mvWorld != null) {
-                            Class<?> mvWorldClass = mvWorld.getClass();
-                            Method getAliasMethod = mvWorldClass.getMethod("getAlias");
-                            String alias = (String) getAliasMethod.invoke(mvWorld);
-                            return alias != null && !alias.isEmpty() ? alias : world.getName();
-                        }
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("获取Multiverse世界别名时出错: " + e.getMessage());
-                    }
-                    return world.getName();
-                    
-                case "world_env":
-                case "worldenv":
-                    return world.getEnvironment().toString();
-                    
-                default:
-                    return "%" + "mv" + "_" + variableName + "%";
+        PlaceholderTokenizer tokenizer = new PlaceholderTokenizer(text);
+        StringBuilder result = null;
+        int copied = 0;
+        
+        while (tokenizer.next()) {
+            String resolved = registry.resolve(tokenizer.getToken(), tokenizer.getSeparator(), player, item, batch,
+                    external);
+            if (resolved == null) {
+                continue; // 无法解析时保留原文
             }
             
-        } catch (Exception e) {
-            plugin.getLogger().warning("处理Multiverse变量时出错: " + e.getMessage());
+            if (result == null) {
+                result = new StringBuilder(text.length() + 16);
+            }
+            result.append(text, copied, tokenizer.getStart()).append(resolved);
+            copied = tokenizer.getEnd() + 1;
+            tokenizer.consume();
         }
         
-        return "%" + "mv" + "_" + variableName + "%";
+        if (result == null) {
+            return text;
+        }
+        result.append(text, copied, text.length());
+        return result.toString();
     }
     
     /**
-     * 处理MultiWorld插件变量
+     * 分析文本中的变量类型，在重载配置时调用，渲染时据此跳过不需要的处理
+     * @param text 待分析的文本
+     * @return 变量类型
      */
-    private String processMultiWorldVariable(String variableName, Player player) {
-        PluginManager pluginManager = plugin.getPluginManager();
-        
-        if (!pluginManager.isPluginEnabled("MultiWorld") || player == null) {
-            return "%" + "mw" + "_" + variableName + "%";
+    public static Usage analyze(String text) {
+        if (text == null || text.indexOf('%') < 0) {
+            return Usage.NONE;
         }
         
-        try {
-            Plugin multiWorldPlugin = pluginManager.getSupportedPlugin("MultiWorld");
-            if (multiWorldPlugin == null) return "%" + "mw" + "_" + variableName + "%";
-            
-            World world = player.getWorld();
-            
-            switch (variableName) {
-                case "world":
-                case "worldname":
-                    return world.getName();
-                    
-                case "world_alias":
-                case "worldalias":
-                    // 尝试获取世界别名，如果插件支持的话
-                    try {
-                        Class<?> mwApiClass = Class.forName("org.multiworld.api.MultiWorldAPI");
-                        Method getInstanceMethod = mwApiClass.getMethod("getInstance");
-                        Object mwApi = getInstanceMethod.invoke(null);
-                        
-                        Method getWorldMethod = mwApiClass.getMethod("getWorld", String.class);
-                        Object mwWorld = getWorldMethod.invoke(mwApi, world.getName());
-                        
-                        if (mwWorld != null) {
-                            Class<?> mwWorldClass = mwWorld.getClass();
-                            Method getAliasMethod = mwWorldClass.getMethod("getAlias");
-                            String alias = (String) getAliasMethod.invoke(mwWorld);
-                            return alias != null && !alias.isEmpty() ? alias : world.getName();
-                        }
-                    } catch (Exception e) {
-                        // 如果方法不存在或调用失败，返回世界名
-                        return world.getName();
-                    }
-                    return world.getName();
-                    
-                case "world_env":
-                case "worldenv":
-                    return world.getEnvironment().toString();
-                    
-                default:
-                    return "%" + "mw" + "_" + variableName + "%";
+        Usage usage = Usage.NONE;
+        PlaceholderTokenizer tokenizer = new PlaceholderTokenizer(text);
+        while (tokenizer.next()) {
+            boolean builtin = false;
+            for (String namespace : BUILTIN_NAMESPACES) {
+                if (tokenizer.namespaceEquals(namespace)) {
+                    builtin = true;
+                    break;
+                }
             }
-            
-        } catch (Exception e) {
-            plugin.getLogger().warning("处理MultiWorld变量时出错: " + e.getMessage());
+            if (!builtin) {
+                return Usage.EXTERNAL;
+            }
+            usage = Usage.BUILTIN;
         }
-        
-        return "%" + "mw" + "_" + variableName + "%";
+        return usage;
     }
     
     /**
-     * 处理Vault插件变量
+     * 收集文本中所有可能被解析的变量，用于在主线程预先解析
+     * 与渲染时的扫描不同，这里不跳过已解析的变量，因此结果总是包含渲染时会查找的所有变量
+     * @param text 文本
+     * @param usage 文本的变量类型
+     * @param tokens 变量内容到变量类型的映射，同一变量取需要处理最多的类型
      */
-    private String processVaultVariable(String variableName, Player player) {
-        PluginManager pluginManager = plugin.getPluginManager();
-        
-        if (!pluginManager.isPluginEnabled("Vault") || player == null) {
-            return "%" + "vault" + "_" + variableName + "%";
+    public static void collectTokens(String text, Usage usage, Map<String, Usage> tokens) {
+        if (usage == Usage.NONE || text == null || text.indexOf('%') < 0) {
+            return;
         }
         
-        try {
-            // 尝试获取Vault经济服务
-            Plugin vaultPlugin = pluginManager.getSupportedPlugin("Vault");
-            if (vaultPlugin == null) return "%" + "vault" + "_" + variableName + "%";
-            
-            // 动态尝试使用Vault API，避免直接依赖
-            Class<?> vaultClass = Class.forName("net.milkbowl.vault.Vault");
-            if (vaultClass != null) {
-                switch (variableName) {
-                    case "balance":
-                        // 尝试获取玩家余额
-                        try {
-                            Class<?> econClass = Class.forName("net.milkbowl.vault.economy.Economy");
-                            Object econ = Bukkit.getServicesManager().getRegistration(econClass).getProvider();
-                            Method getBalanceMethod = econClass.getMethod("getBalance", Object.class);
-                            double balance = (double) getBalanceMethod.invoke(econ, player);
-                            return String.format("%.2f", balance);
-                        } catch (Exception e) {
-                            plugin.getLogger().warning("获取Vault余额时出错: " + e.getMessage());
-                            return "0.00";
-                        }
-                    default:
-                        return "%" + "vault" + "_" + variableName + "%";
-                }
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("处理Vault变量时出错: " + e.getMessage());
+        PlaceholderTokenizer tokenizer = new PlaceholderTokenizer(text);
+        while (tokenizer.next()) {
+            tokens.merge(tokenizer.getToken(), usage, Usage::merge);
         }
-        
-        return "%" + "vault" + "_" + variableName + "%";
     }
     
     /**
-     * 处理MMOItems插件变量
+     * 在主线程预先解析变量并封存批次，之后的渲染只使用批次中的结果，可以在后台线程进行
+     * @param batch 渲染批次
+     * @param tokens 变量内容到变量类型的映射
      */
-    private String processMMOItemsVariable(String variableName, ItemStack item) {
-        PluginManager pluginManager = plugin.getPluginManager();
-        
-        if (!pluginManager.isPluginEnabled("MMOItems") || item == null) {
-            return "%" + "mmoitems" + "_" + variableName + "%";
+    public void prefetch(PlaceholderBatch batch, Map<String, Usage> tokens) {
+        for (Map.Entry<String, Usage> entry : tokens.entrySet()) {
+            String token = entry.getKey();
+            // 内置变量同样需要记录，后台线程不能访问玩家和物品
+            batch.store(token, registry.resolve(token, token.indexOf('_'), batch.getPlayer(), batch.getItem(), batch,
+                    entry.getValue() == Usage.EXTERNAL));
         }
-        
-        try {
-            // 尝试动态使用MMOItems API
-            Plugin mmoItemsPlugin = pluginManager.getSupportedPlugin("MMOItems");
-            if (mmoItemsPlugin == null) return "%" + "mmoitems" + "_" + variableName + "%";
-            
-            // 这里可以添加特定的MMOItems变量处理
-            // 例如获取物品类型、ID等
-            // 由于不直接依赖MMOItems，我们使用反射获取信息
-            
-        } catch (Exception e) {
-            plugin.getLogger().warning("处理MMOItems变量时出错: " + e.getMessage());
-        }
-        
-        return "%" + "mmoitems" + "_" + variableName + "%";
+        batch.seal();
     }
     
     /**
-     * 处理ItemsAdder插件变量
+     * 文本中包含的变量类型
      */
-    private String processItemsAdderVariable(String variableName, ItemStack item) {
-        PluginManager pluginManager = plugin.getPluginManager();
-        
-        if (!pluginManager.isPluginEnabled("ItemsAdder") || item == null) {
-            return "%" + "itemsadder" + "_" + variableName + "%";
+    public enum Usage {
+        NONE,       // 没有变量
+        BUILTIN,    // 只有内置变量
+        EXTERNAL;   // 包含需要PlaceholderAPI或其他插件处理的变量
+        
+        /**
+         * 合并两段文本的变量类型
+         */
+        public Usage merge(Usage other) {
+            return other.ordinal() > ordinal() ? other : this;
         }
-        
-        try {
-            // 尝试动态使用ItemsAdder API
-            Plugin itemsAdderPlugin = pluginManager.getSupportedPlugin("ItemsAdder");
-            if (itemsAdderPlugin == null) return "%" + "itemsadder" + "_" + variableName + "%";
-            
-            // 这里可以添加特定的ItemsAdder变量处理
-            
-        } catch (Exception e) {
-            plugin.getLogger().warning("处理ItemsAdder变量时出错: " + e.getMessage());
-        }
-        
-        return "%" + "itemsadder" + "_" + variableName + "%";
     }
     
     /**
-     * 处理MythicMobs插件变量
+     * 处理ItemsLore插件的自定义变量
+     * @param params 变量参数（%ilore_之后的部分）
+     * @param player 玩家对象
+     * @param item 物品对象
+     * @param context 渲染上下文，可能为null
+     * @return 变量值，无法解析时返回null
      */
-    private String processMythicMobsVariable(String variableName, ItemStack item) {
-        PluginManager pluginManager = plugin.getPluginManager();
-        
-        if (!pluginManager.isPluginEnabled("MythicMobs") || item == null) {
-            return "%" + "mythicmobs" + "_" + variableName + "%";
-        }
-        
-        try {
-            // 尝试动态使用MythicMobs API
-            Plugin mythicMobsPlugin = pluginManager.getSupportedPlugin("MythicMobs");
-            if (mythicMobsPlugin == null) return "%" + "mythicmobs" + "_" + variableName + "%";
-            
-            // 这里可以添加特定的MythicMobs变量处理
-            
-        } catch (Exception e) {
-            plugin.getLogger().warning("处理MythicMobs变量时出错: " + e.getMessage());
+    private String resolveItemsLoreVariable(String params, Player player, ItemStack item, LoreRenderContext context) {
+        switch (params) {
+            // 与物品相关的变量
+            case "material_name":
+                return item != null ? item.getType().name() : null;
+            case "item_name":
+                return item != null ? getItemName(item, context) : null;
+                
+            // 与玩家相关的变量
+            case "player":
+            case "player_name":
+                return player != null ? player.getName() : null;
+            case "player_displayname":
+                return player != null ? player.getDisplayName() : null;
+                
+            // 世界相关变量
+            case "world":
+            case "world_name":
+                return player != null ? player.getWorld().getName() : null;
+                
+            default:
+                return null;
         }
-        
-        return "%" + "mythicmobs" + "_" + variableName + "%";
     }
     
     /**
-     * 动态尝试处理任何插件的变量
+     * 获取物品显示名称，没有自定义名称时使用格式化的材质名
+     * 渲染Lore时直接使用上下文中读取的名称，不再复制ItemMeta
+     * @param item 物品对象
+     * @param context 渲染上下文，可能为null
+     * @return 物品名称
      */
-    private String processDynamicPluginVariable(String pluginName, String variableName, Player player, ItemStack item) {
-        // 先检查插件是否存在
-        Plugin targetPlugin = Bukkit.getPluginManager().getPlugin(pluginName);
-        if (targetPlugin == null || !targetPlugin.isEnabled()) {
-            return "%" + pluginName + "_" + variableName + "%";
+    private String getItemName(ItemStack item, LoreRenderContext context) {
+        if (context != null) {
+            String displayName = context.getDisplayName();
+            return displayName != null ? displayName : formatMaterialName(context.getMaterial().name());
         }
-        
-        try {
-            // 尝试通过反射调用插件的API
-            // 这只是一个通用框架，具体实现需要根据各个插件的API结构调整
-            Class<?> pluginClass = targetPlugin.getClass();
-            
-            // 尝试找到处理变量的方法
-            try {
-                Method getVariableMethod = findVariableMethod(pluginClass);
-                if (getVariableMethod != null) {
-                    return (String) getVariableMethod.invoke(targetPlugin, variableName, player);
-                }
-            } catch (Exception e) {
-                // 忽略，继续尝试其他方法
+        if (item.hasItemMeta()) {
+            ItemMeta meta = item.getItemMeta();
+            if (meta != null && meta.hasDisplayName()) {
+                return meta.getDisplayName();
             }
-            
-        } catch (Exception e) {
-            plugin.getLogger().warning("处理插件 " + pluginName + " 的变量时出错: " + e.getMessage());
         }
-        
-        // 如果无法处理，保留原始变量格式
-        return "%" + pluginName + "_" + variableName + "%";
+        return formatMaterialName(item.getType().name());
     }
     
     /**
-     * 尝试在插件类中查找处理变量的方法
+     * 格式化物品材质名称为更易读的格式
+     * @param materialName 物品材质名
+     * @return 格式化后的名称
      */
-    private Method findVariableMethod(Class<?> pluginClass) {
-        // 常见的变量处理方法名
-        String[] methodNames = {
-            "getVariable", "getPlaceholder", "getPlaceholderValue", "processVariable", "processPlaceholder"
-        };
+    private String formatMaterialName(String materialName) {
+        String[] parts = materialName.toLowerCase().split("_");
+        StringBuilder formattedName = new StringBuilder();
         
-        for (String methodName : methodNames) {
-            try {
-                // 尝试不同的参数组合
-                try {
-                    return pluginClass.getMethod(methodName, String.class, Player.class);
-                } catch (NoSuchMethodException e) {
-                    // 继续尝试
-                }
-                
-                try {
-                    return pluginClass.getMethod(methodName, Player.class, String.class);
-                } catch (NoSuchMethodException e) {
-                    // 继续尝试
-                }
-                
-                try {
-                    return pluginClass.getMethod(methodName, String.class);
-                } catch (NoSuchMethodException e) {
-                    // 继续尝试
-                }
-            } catch (Exception e) {
-                // 忽略异常，继续尝试下一个方法名
+        for (String part : parts) {
+            if (!part.isEmpty()) {
+                formattedName.append(part.substring(0, 1).toUpperCase())
+                        .append(part.substring(1))
+                        .append(" ");
             }
         }
         
-        return null;
+        return formattedName.toString().trim();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package org.Itemslore.itemslore.utils;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 权重树（树状数组）
+ * 重载时由池条目权重一次性构建且不再修改，每次抽取时通过{@link Draw}记录已移除的权重，
+ * 按权重不放回地抽取k个条目的开销为O(k log n)，不需要复制或移动条目列表
+ */
+public final class WeightTree {
+
+    private final double[] weights;
+    // 1-based树状数组，tree[i]保存(i - lowbit(i), i]区间的权重和
+    private final double[] tree;
+    private final double total;
+
+    private WeightTree(double[] weights, double[] tree, double total) {
+        this.weights = weights;
+        this.tree = tree;
+        this.total = total;
+    }
+
+    /**
+     * 以线性时间构建权重树
+     * @param weights 每个条目的权重
+     * @return 权重树
+     */
+    public static WeightTree build(double[] weights) {
+        int size = weights.length;
+        double[] tree = new double[size + 1];
+        double total = 0.0;
+        for (int i = 1; i <= size; i++) {
+            tree[i] += weights[i - 1];
+            total += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+        return new WeightTree(weights.clone(), tree, total);
+    }
+
+    public int size() {
+        return weights.length;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * 开始一次不放回抽取
+     * @return 抽取会话
+     */
+    public Draw newDraw() {
+        return new Draw();
+    }
+
+    /**
+     * 一次不放回抽取的会话
+     * 只记录被移除条目影响到的树节点，基础树保持不变
+     */
+    public final class Draw {
+        private final Map<Integer, Double> removedNodes = new HashMap<>();
+        private final BitSet removed = new BitSet();
+        private double removedTotal = 0.0;
+        private int remaining = weights.length;
+
+        /**
+         * 获取剩余权重
+         */
+        public double getRemainingWeight() {
+            if (remaining == 0) {
+                return 0.0;
+            }
+            return Math.max(0.0, total - removedTotal);
+        }
+
+        public boolean isRemoved(int index) {
+            return removed.get(index);
+        }
+
+        /**
+         * 移除一个条目，之后不会再被抽到
+         * @param index 条目序号
+         */
+        public void remove(int index) {
+            if (removed.get(index)) {
+                return;
+            }
+            removed.set(index);
+            remaining--;
+
+            double weight = weights[index];
+            removedTotal += weight;
+            for (int node = index + 1; node < tree.length; node += node & -node) {
+                removedNodes.merge(node, weight, Double::sum);
+            }
+        }
+
+        /**
+         * 移除一组条目
+         * @param indices 条目序号
+         */
+        public void removeAll(int[] indices) {
+            for (int index : indices) {
+                remove(index);
+            }
+        }
+
+        /**
+         * 按剩余权重抽取一个条目（不会自动移除）
+         * @param point 落点，范围[0, 剩余权重)
+         * @return 条目序号，没有剩余条目时返回-1
+         */
+        public int sample(double point) {
+            if (remaining == 0) {
+                return -1;
+            }
+
+            int size = weights.length;
+            int position = 0;
+            for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next > size) continue;
+
+                double nodeWeight = tree[next] - removedNodes.getOrDefault(next, 0.0);
+                if (nodeWeight <= point) {
+                    position = next;
+                    point -= nodeWeight;
+                }
+            }
+
+            // 浮点误差可能使落点越界或落在已移除的条目上，取最近的剩余条目
+            if (position >= size || removed.get(position)) {
+                int fallback = removed.nextClearBit(Math.min(position, size));
+                if (fallback >= size) {
+                    fallback = removed.nextClearBit(0);
+                }
+                return fallback;
+            }
+            return position;
+        }
+    }
+}
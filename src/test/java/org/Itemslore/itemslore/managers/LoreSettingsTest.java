@@ -0,0 +1,50 @@
+package org.Itemslore.itemslore.managers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LoreSettingsTest {
+
+    private static final Logger LOGGER = Logger.getAnonymousLogger();
+
+    private static int parse(String value) {
+        return LoreSettings.parseTicks(value, 7, "test", LOGGER);
+    }
+
+    @Test
+    void parsesUnits() {
+        assertEquals(5, parse("5t"));
+        assertEquals(100, parse("5s"));
+        assertEquals(40, parse(" 2S "));
+        assertEquals(12, parse("12"));
+        assertEquals(0, parse("0t"));
+    }
+
+    @Test
+    void roundsMillisecondsUp() {
+        assertEquals(10, parse("500ms"));
+        assertEquals(1, parse("1ms"));
+        assertEquals(1, parse("50ms"));
+        assertEquals(2, parse("51ms"));
+        assertEquals(0, parse("0ms"));
+    }
+
+    @Test
+    void invalidValuesUseDefault() {
+        assertEquals(7, parse(null));
+        assertEquals(7, parse(""));
+        assertEquals(7, parse("abc"));
+        assertEquals(7, parse("1.5s"));
+        assertEquals(7, parse("ms"));
+    }
+
+    @Test
+    void negativeValuesClampToZero() {
+        assertEquals(0, parse("-3t"));
+        assertEquals(0, parse("-1s"));
+        assertEquals(0, parse("-100ms"));
+    }
+}
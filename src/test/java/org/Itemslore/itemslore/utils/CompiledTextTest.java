@@ -0,0 +1,81 @@
+package org.Itemslore.itemslore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledTextTest {
+
+    // 测试文本不含颜色代码，着色前后相同
+    private final ColorManager colorManager = new ColorManager(null);
+
+    private static Map<String, CompiledText.Handler> handlers() {
+        Map<String, CompiledText.Handler> handlers = new LinkedHashMap<>();
+        handlers.put("%durability%", builder -> builder.token(CompiledText.Token.DURABILITY_HIGH));
+        handlers.put("%max_durability%", builder -> builder.token(CompiledText.Token.DURABILITY_MAX));
+        handlers.put("%player%", builder -> builder.token(CompiledText.Token.PLAYER));
+        handlers.put("%source%", builder -> builder.literal("来源: ").token(CompiledText.Token.SOURCE));
+        return handlers;
+    }
+
+    @Test
+    void splitsLiteralsAndTokens() {
+        CompiledText text = new CompiledText.Builder()
+                .parse("耐久: %durability%/%max_durability%", handlers())
+                .build(colorManager);
+
+        assertEquals(2, text.getTokenCount());
+        assertEquals("耐久: ", text.getLiteral(0));
+        assertEquals(CompiledText.Token.DURABILITY_HIGH, text.getToken(0));
+        assertEquals("/", text.getLiteral(1));
+        assertEquals(CompiledText.Token.DURABILITY_MAX, text.getToken(1));
+        assertEquals("", text.getLiteral(2));
+        assertTrue(text.contains(CompiledText.Token.DURABILITY_MAX));
+        assertFalse(text.contains(CompiledText.Token.PLAYER));
+        assertFalse(text.hasVariables());
+    }
+
+    @Test
+    void handlersCanExpandToLiterals() {
+        CompiledText text = new CompiledText.Builder()
+                .literal("[")
+                .parse("%source%", handlers())
+                .literal("]")
+                .build(colorManager);
+
+        assertEquals(1, text.getTokenCount());
+        assertEquals("[来源: ", text.getLiteral(0));
+        assertEquals(CompiledText.Token.SOURCE, text.getToken(0));
+        assertEquals("]", text.getLiteral(1));
+    }
+
+    @Test
+    void unknownPlaceholdersStayInLiterals() {
+        CompiledText text = new CompiledText.Builder()
+                .parse("100% %player% %vault_eco_balance%", handlers())
+                .build(colorManager);
+
+        assertEquals(1, text.getTokenCount());
+        assertEquals("100% ", text.getLiteral(0));
+        assertEquals(" %vault_eco_balance%", text.getLiteral(1));
+        assertTrue(text.hasVariables());
+        assertEquals(VariableProcessor.Usage.EXTERNAL, text.getVariableUsage());
+    }
+
+    @Test
+    void emptyTextHasSingleEmptyLiteral() {
+        CompiledText text = new CompiledText.Builder()
+                .parse(null, handlers())
+                .parse("", handlers())
+                .build(colorManager);
+
+        assertEquals(0, text.getTokenCount());
+        assertEquals("", text.getLiteral(0));
+        assertEquals(VariableProcessor.Usage.NONE, text.getVariableUsage());
+    }
+}
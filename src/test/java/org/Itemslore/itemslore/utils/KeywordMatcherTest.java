@@ -0,0 +1,63 @@
+package org.Itemslore.itemslore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordMatcherTest {
+
+    @Test
+    void matchesAnyKeyword() {
+        KeywordMatcher matcher = KeywordMatcher.compile(Arrays.asList("灵魂绑定", "soulbound", "无法交易"));
+
+        assertTrue(matcher.matches("§7灵魂绑定"));
+        assertTrue(matcher.matches("this item is soulbound"));
+        assertTrue(matcher.matches("无法交易"));
+        assertFalse(matcher.matches("soul bound"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void followsFailureLinks() {
+        // "abcd"失配后需要沿失配指针继续匹配"bce"
+        KeywordMatcher matcher = KeywordMatcher.compile(Arrays.asList("abcd", "bce", "c"));
+
+        assertTrue(matcher.matches("xabce"));
+        assertTrue(matcher.matches("c"));
+        assertFalse(matcher.matches("abd"));
+
+        KeywordMatcher nested = KeywordMatcher.compile(Arrays.asList("she", "he", "hers"));
+        assertTrue(nested.matches("ushe"));
+        assertTrue(nested.matches("ahe"));
+        assertFalse(nested.matches("hrs"));
+    }
+
+    @Test
+    void emptyKeywordMatchesEverything() {
+        KeywordMatcher matcher = KeywordMatcher.compile(Arrays.asList("abc", ""));
+
+        assertTrue(matcher.matches(""));
+        assertTrue(matcher.matches("xyz"));
+    }
+
+    @Test
+    void noKeywordsMatchNothing() {
+        KeywordMatcher matcher = KeywordMatcher.compile(Collections.emptyList());
+
+        assertFalse(matcher.matches("anything"));
+        assertFalse(matcher.matchesAny(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    void matchesAnySkipsNullLines() {
+        KeywordMatcher matcher = KeywordMatcher.compile(Collections.singletonList("key"));
+
+        assertTrue(matcher.matchesAny(Arrays.asList(null, "no", "monkey")));
+        assertFalse(matcher.matchesAny(Arrays.asList(null, "no")));
+        assertFalse(matcher.matchesAny(Collections.emptyList()));
+    }
+}
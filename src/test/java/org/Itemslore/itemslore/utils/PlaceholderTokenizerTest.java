@@ -0,0 +1,86 @@
+package org.Itemslore.itemslore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaceholderTokenizerTest {
+
+    private static List<String> tokens(String text) {
+        List<String> result = new ArrayList<>();
+        PlaceholderTokenizer tokenizer = new PlaceholderTokenizer(text);
+        while (tokenizer.next()) {
+            result.add(tokenizer.getToken());
+        }
+        return result;
+    }
+
+    @Test
+    void findsTokenPositions() {
+        PlaceholderTokenizer tokenizer = new PlaceholderTokenizer("名称: %player_name%!");
+
+        assertTrue(tokenizer.next());
+        assertEquals(4, tokenizer.getStart());
+        assertEquals(16, tokenizer.getEnd());
+        assertEquals("player_name", tokenizer.getToken());
+        assertEquals(6, tokenizer.getSeparator());
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    void tokenWithoutUnderscoreHasNoSeparator() {
+        PlaceholderTokenizer tokenizer = new PlaceholderTokenizer("%time%");
+
+        assertTrue(tokenizer.next());
+        assertEquals("time", tokenizer.getToken());
+        assertEquals(-1, tokenizer.getSeparator());
+        assertTrue(tokenizer.namespaceEquals("time"));
+    }
+
+    @Test
+    void namespaceCannotContainSpaces() {
+        assertEquals(List.of("player_name"), tokens("100% sure %player_name%"));
+        // 参数中可以有空格
+        assertEquals(List.of("papi_a b"), tokens("%papi_a b%"));
+    }
+
+    @Test
+    void doublePercentRestartsAtSecond() {
+        assertEquals(List.of("a_b"), tokens("%%a_b%"));
+        assertEquals(List.of(), tokens("50%%"));
+    }
+
+    @Test
+    void unclosedPercentEndsScan() {
+        assertEquals(List.of(), tokens("%player_name"));
+        assertEquals(List.of("a_b"), tokens("%a_b% %c_d"));
+        assertEquals(List.of(), tokens(""));
+        assertEquals(List.of(), tokens("%"));
+    }
+
+    @Test
+    void closingPercentCanStartNextToken() {
+        // 未消费时，闭合的%可能是下一个变量的开头
+        assertEquals(List.of("a", "b"), tokens("%a%b%"));
+
+        PlaceholderTokenizer tokenizer = new PlaceholderTokenizer("%a%b%");
+        assertTrue(tokenizer.next());
+        tokenizer.consume();
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    void namespaceEqualsIgnoresCase() {
+        PlaceholderTokenizer tokenizer = new PlaceholderTokenizer("%ILore_relative_time%");
+
+        assertTrue(tokenizer.next());
+        assertTrue(tokenizer.namespaceEquals("ilore"));
+        assertFalse(tokenizer.namespaceEquals("ilor"));
+        assertFalse(tokenizer.namespaceEquals("ilore_relative"));
+    }
+}
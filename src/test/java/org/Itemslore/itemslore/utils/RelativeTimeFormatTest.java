@@ -0,0 +1,43 @@
+package org.Itemslore.itemslore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RelativeTimeFormatTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private final RelativeTimeFormat format = new RelativeTimeFormat("刚刚", "{n}分钟前", "{n}小时前", "{n}天前");
+
+    @Test
+    void bucketsByLargestUnit() {
+        assertEquals(0L, format.bucket(0L));
+        assertEquals(0L, format.bucket(MINUTE - 1));
+        assertEquals(MINUTE, format.bucket(MINUTE));
+        assertEquals(MINUTE, format.bucket(2 * MINUTE - 1));
+        assertEquals(59 * MINUTE, format.bucket(HOUR - 1));
+        assertEquals(HOUR, format.bucket(HOUR));
+        assertEquals(HOUR, format.bucket(HOUR + 59 * MINUTE));
+        assertEquals(23 * HOUR, format.bucket(DAY - 1));
+        assertEquals(DAY, format.bucket(DAY));
+        assertEquals(3 * DAY, format.bucket(3 * DAY + 23 * HOUR));
+    }
+
+    @Test
+    void sameBucketFormatsSameText() {
+        for (long elapsed : new long[]{0L, 30_000L, 90_000L, HOUR + 1, 2 * DAY + 5 * HOUR}) {
+            assertEquals(format.format(format.bucket(elapsed)), format.format(elapsed));
+        }
+    }
+
+    @Test
+    void formatsEachUnit() {
+        assertEquals("刚刚", format.format(MINUTE - 1));
+        assertEquals("5分钟前", format.format(5 * MINUTE + 10));
+        assertEquals("2小时前", format.format(2 * HOUR + 30 * MINUTE));
+        assertEquals("3天前", format.format(3 * DAY));
+    }
+}
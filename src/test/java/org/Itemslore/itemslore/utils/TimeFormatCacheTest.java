@@ -0,0 +1,44 @@
+package org.Itemslore.itemslore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TimeFormatCacheTest {
+
+    @Test
+    void findsSmallestUnit() {
+        assertEquals(ChronoUnit.DAYS, TimeFormatCache.findPrecision("yyyy-MM-dd"));
+        assertEquals(ChronoUnit.HOURS, TimeFormatCache.findPrecision("yyyy-MM-dd HH"));
+        assertEquals(ChronoUnit.HOURS, TimeFormatCache.findPrecision("h a"));
+        assertEquals(ChronoUnit.MINUTES, TimeFormatCache.findPrecision("yyyy-MM-dd HH:mm"));
+        assertEquals(ChronoUnit.SECONDS, TimeFormatCache.findPrecision("ss HH:mm"));
+    }
+
+    @Test
+    void subSecondFieldsDisableCaching() {
+        assertNull(TimeFormatCache.findPrecision("HH:mm:ss.SSS"));
+        assertNull(TimeFormatCache.findPrecision("HH:mm:ss.n"));
+    }
+
+    @Test
+    void quotedTextIsIgnored() {
+        assertEquals(ChronoUnit.DAYS, TimeFormatCache.findPrecision("yyyy-MM-dd 'hms'"));
+        assertEquals(ChronoUnit.MINUTES, TimeFormatCache.findPrecision("'S' HH:mm"));
+        // ''表示单引号本身，之后的字段仍然计入
+        assertEquals(ChronoUnit.SECONDS, TimeFormatCache.findPrecision("yyyy''ss"));
+    }
+
+    @Test
+    void formatReusesCachedText() {
+        TimeFormatCache cache = TimeFormatCache.compile("yyyy-MM-dd");
+        String first = cache.format();
+
+        assertNotNull(first);
+        assertEquals(10, first.length());
+    }
+}
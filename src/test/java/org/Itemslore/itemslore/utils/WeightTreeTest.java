@@ -0,0 +1,100 @@
+package org.Itemslore.itemslore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightTreeTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void samplesByCumulativeWeight() {
+        WeightTree tree = WeightTree.build(new double[]{1, 2, 3});
+        WeightTree.Draw draw = tree.newDraw();
+
+        assertEquals(3, tree.size());
+        assertEquals(6.0, tree.getTotal(), EPSILON);
+        assertEquals(0, draw.sample(0.0));
+        assertEquals(0, draw.sample(0.99));
+        assertEquals(1, draw.sample(1.0));
+        assertEquals(1, draw.sample(2.99));
+        assertEquals(2, draw.sample(3.0));
+        assertEquals(2, draw.sample(5.99));
+    }
+
+    @Test
+    void removedEntriesAreSkipped() {
+        WeightTree tree = WeightTree.build(new double[]{1, 2, 3});
+        WeightTree.Draw draw = tree.newDraw();
+        draw.remove(1);
+
+        assertTrue(draw.isRemoved(1));
+        assertEquals(4.0, draw.getRemainingWeight(), EPSILON);
+        assertEquals(0, draw.sample(0.5));
+        assertEquals(2, draw.sample(1.0));
+        assertEquals(2, draw.sample(3.99));
+
+        // 重复移除不影响剩余权重
+        draw.remove(1);
+        assertEquals(4.0, draw.getRemainingWeight(), EPSILON);
+    }
+
+    @Test
+    void emptyDrawReturnsMinusOne() {
+        WeightTree tree = WeightTree.build(new double[]{1, 2, 3});
+        WeightTree.Draw draw = tree.newDraw();
+        draw.removeAll(new int[]{0, 1, 2});
+
+        assertEquals(0.0, draw.getRemainingWeight(), EPSILON);
+        assertEquals(-1, draw.sample(0.0));
+        assertEquals(-1, WeightTree.build(new double[0]).newDraw().sample(0.0));
+    }
+
+    @Test
+    void drawsDoNotModifyTree() {
+        WeightTree tree = WeightTree.build(new double[]{1, 2, 3});
+        tree.newDraw().removeAll(new int[]{0, 2});
+
+        WeightTree.Draw draw = tree.newDraw();
+        assertFalse(draw.isRemoved(0));
+        assertEquals(6.0, draw.getRemainingWeight(), EPSILON);
+        assertEquals(0, draw.sample(0.5));
+    }
+
+    @Test
+    void zeroWeightEntriesAreNeverSampled() {
+        WeightTree tree = WeightTree.build(new double[]{0, 1, 0, 1});
+        WeightTree.Draw draw = tree.newDraw();
+
+        assertEquals(1, draw.sample(0.0));
+        assertEquals(3, draw.sample(1.0));
+        assertEquals(3, draw.sample(1.99));
+    }
+
+    @Test
+    void samplingWithoutReplacementVisitsEveryEntry() {
+        double[] weights = {5, 1, 0.5, 3, 2, 8, 0.25, 4, 7, 1.5, 6};
+        WeightTree tree = WeightTree.build(weights);
+        Random random = new Random(42);
+
+        for (int round = 0; round < 100; round++) {
+            WeightTree.Draw draw = tree.newDraw();
+            Set<Integer> drawn = new HashSet<>();
+            for (int i = 0; i < weights.length; i++) {
+                int index = draw.sample(random.nextDouble() * draw.getRemainingWeight());
+                assertFalse(draw.isRemoved(index));
+                assertTrue(drawn.add(index));
+                draw.remove(index);
+            }
+            assertEquals(weights.length, drawn.size());
+            assertEquals(-1, draw.sample(0.0));
+        }
+    }
+}